@@ -0,0 +1,229 @@
+package me.kermx.desirepaths.benchmarks;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import me.kermx.desirepaths.DesirePaths;
+import me.kermx.desirepaths.metrics.LatencyHistogram;
+import me.kermx.desirepaths.metrics.PathMetrics;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Runs the real plugin on a mock server with many synthetic players and
+ * reports what it costs per tick. Every player random-walks over a grass
+ * world with a random pair of boots, some sprint or sneak and some ride a
+ * boat or a horse, so the whole pipeline runs: PathScheduler, the async
+ * decision, then blockHandler and blockSwitcher on the main thread.
+ * <p>
+ * The plugin time of a tick is how long the mock server took to run the
+ * scheduled tasks of that tick; DesirePaths is the only plugin, so that
+ * is its main thread cost. Players move through
+ * {@link PlayerMock#simulatePlayerMove(Location)}, so the move listeners
+ * run like on a real server and the movement check sees every step; the
+ * time of all moves of a tick is reported separately, it includes the
+ * mock server's own event dispatch. The report is written as JSON so two
+ * builds can be diffed.
+ * <p>
+ * mvn -P loadtest compile exec:java -Dloadtest.players=500 -Dloadtest.ticks=6000
+ * <ul>
+ *     <li>loadtest.players, default 500</li>
+ *     <li>loadtest.ticks, default 6000 (five minutes)</li>
+ *     <li>loadtest.seed, default 42</li>
+ *     <li>loadtest.config, a config.yml to use instead of the bundled one</li>
+ *     <li>loadtest.output, default loadtest.json</li>
+ * </ul>
+ */
+public final class LoadTest {
+    private static final int GRASS_HEIGHT = 64; // the top grass block, players stand on it
+    private static final int AREA = 2000;
+    private static final double STEP = 0.28; // about walking speed per tick
+    private static final Material[] BOOTS = {null, Material.LEATHER_BOOTS, Material.IRON_BOOTS,
+            Material.DIAMOND_BOOTS, Material.NETHERITE_BOOTS};
+
+    private LoadTest() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final int playerCount = Integer.getInteger("loadtest.players", 500);
+        final int ticks = Integer.getInteger("loadtest.ticks", 6000);
+        final long seed = Long.getLong("loadtest.seed", 42L);
+        final String config = System.getProperty("loadtest.config");
+        final Path output = Paths.get(System.getProperty("loadtest.output", "loadtest.json"));
+        final Random random = new Random(seed);
+
+        final ServerMock server = MockBukkit.mock();
+        try {
+            final WorldMock world = new WorldMock(Material.GRASS_BLOCK, GRASS_HEIGHT);
+            world.setName("world");
+            server.addWorld(world);
+
+            final DesirePaths plugin = MockBukkit.load(DesirePaths.class);
+            if (config != null) {
+                Files.copy(Paths.get(config), plugin.getDataFolder().toPath().resolve("config.yml"), StandardCopyOption.REPLACE_EXISTING);
+                plugin.reload();
+            }
+
+            final List<Walker> walkers = new ArrayList<>(playerCount);
+            int riding = 0;
+            for (int i = 0; i < playerCount; i++) {
+                final Walker walker = new Walker(server.addPlayer(), world, random);
+                walkers.add(walker);
+                if (walker.vehicle != null) {
+                    riding++;
+                }
+            }
+
+            final long heapBefore = usedHeap();
+            final long[] tickNanos = new long[ticks];
+            final long[] moveNanos = new long[ticks];
+            int maxQueuedAsync = 0;
+
+            for (int tick = 0; tick < ticks; tick++) {
+                final long moveStart = System.nanoTime();
+                for (final Walker walker : walkers) {
+                    walker.step(random);
+                }
+                moveNanos[tick] = System.nanoTime() - moveStart;
+
+                final long start = System.nanoTime();
+                server.getScheduler().performOneTick();
+                tickNanos[tick] = System.nanoTime() - start;
+                maxQueuedAsync = Math.max(maxQueuedAsync, server.getScheduler().getNumberOfQueuedAsyncTasks());
+            }
+            server.getScheduler().waitAsyncTasksFinished();
+
+            final long heapAfter = usedHeap();
+            final String report = report(playerCount, riding, ticks, seed, tickNanos, moveNanos, maxQueuedAsync,
+                    heapBefore, heapAfter, plugin.getMetrics());
+            Files.write(output, report.getBytes(StandardCharsets.UTF_8));
+            System.out.println(report);
+        } finally {
+            MockBukkit.unmock();
+        }
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String report(final int players, final int riding, final int ticks, final long seed,
+                                 final long[] tickNanos, final long[] moveNanos, final int maxQueuedAsync,
+                                 final long heapBefore, final long heapAfter, final PathMetrics metrics) {
+        final StringBuilder json = new StringBuilder("{\n");
+        json.append(String.format(Locale.ROOT, "  \"players\": %d,\n  \"riding\": %d,\n  \"ticks\": %d,\n  \"seed\": %d,\n",
+                players, riding, ticks, seed));
+        json.append("  \"tickNanos\": ").append(distribution(tickNanos)).append(",\n");
+        json.append("  \"moveNanos\": ").append(distribution(moveNanos)).append(",\n");
+        json.append(String.format(Locale.ROOT, "  \"maxQueuedAsyncTasks\": %d,\n", maxQueuedAsync));
+        json.append(String.format(Locale.ROOT, "  \"heapBytes\": {\"before\": %d, \"after\": %d, \"growth\": %d},\n",
+                heapBefore, heapAfter, heapAfter - heapBefore));
+
+        json.append("  \"counters\": {");
+        final PathMetrics.Counter[] counters = PathMetrics.Counter.values();
+        for (int i = 0; i < counters.length; i++) {
+            json.append(i == 0 ? "" : ", ").append('"').append(counters[i].getKey()).append("\": ").append(metrics.get(counters[i]));
+        }
+        json.append("},\n");
+
+        json.append("  \"stages\": {");
+        final PathMetrics.Stage[] stages = PathMetrics.Stage.values();
+        for (int i = 0; i < stages.length; i++) {
+            final LatencyHistogram histogram = metrics.get(stages[i]);
+            json.append(i == 0 ? "\n" : ",\n").append(String.format(Locale.ROOT,
+                    "    \"%s\": {\"count\": %d, \"meanNanos\": %d, \"p99Nanos\": %d, \"maxNanos\": %d}",
+                    stages[i].getKey(), histogram.getCount(), histogram.getMeanNanos(),
+                    histogram.getPercentileNanos(99), histogram.getMaxNanos()));
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+
+    private static String distribution(final long[] nanos) {
+        final long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (final long value : sorted) {
+            total += value;
+        }
+
+        return String.format(Locale.ROOT, "{\"mean\": %d, \"p50\": %d, \"p90\": %d, \"p99\": %d, \"max\": %d}",
+                sorted.length == 0 ? 0 : total / sorted.length, percentile(sorted, 50), percentile(sorted, 90),
+                percentile(sorted, 99), sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+    }
+
+    private static long percentile(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return 0L;
+        }
+        final int index = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * One synthetic player, walking in slowly turning directions.
+     */
+    private static final class Walker {
+        private final PlayerMock player;
+        private final Entity vehicle;
+        private final Location location;
+        private double heading;
+
+        private Walker(final PlayerMock player, final WorldMock world, final Random random) {
+            this.player = player;
+            this.location = new Location(world, random.nextInt(AREA) + 0.5, GRASS_HEIGHT + 1, random.nextInt(AREA) + 0.5);
+            this.heading = random.nextDouble() * Math.PI * 2;
+
+            final Material boots = BOOTS[random.nextInt(BOOTS.length)];
+            player.getInventory().setBoots(boots == null ? null : new ItemStack(boots));
+            player.setSprinting(random.nextInt(4) == 0);
+            player.setSneaking(random.nextInt(10) == 0);
+            player.teleport(location);
+            this.vehicle = mount(world, random);
+        }
+
+        // A few ride, if the mock server can spawn the vehicle
+        private Entity mount(final WorldMock world, final Random random) {
+            if (random.nextInt(10) != 0) {
+                return null;
+            }
+            try {
+                final Entity entity = world.spawnEntity(location, random.nextBoolean() ? EntityType.BOAT : EntityType.HORSE);
+                entity.addPassenger(player);
+                return entity;
+            } catch (final UnsupportedOperationException e) {
+                return null;
+            }
+        }
+
+        void step(final Random random) {
+            heading += (random.nextDouble() - 0.5) * 0.4;
+            location.add(Math.cos(heading) * STEP, 0, Math.sin(heading) * STEP);
+            location.setX((location.getX() % AREA + AREA) % AREA);
+            location.setZ((location.getZ() % AREA + AREA) % AREA);
+            if (vehicle != null) {
+                vehicle.teleport(location);
+            }
+            // Fires PlayerMoveEvent, a plain teleport would skip the move listeners
+            player.simulatePlayerMove(location.clone());
+        }
+    }
+}
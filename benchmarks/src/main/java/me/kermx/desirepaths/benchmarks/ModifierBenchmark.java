@@ -0,0 +1,59 @@
+package me.kermx.desirepaths.benchmarks;
+
+import me.kermx.desirepaths.rules.ModifierType;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving the chance modifier (getModifier) from a mix of vehicles and boots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModifierBenchmark {
+    private static final int SAMPLES = 1024;
+    private static final EntityType[] VEHICLES = {null, null, null, null, null, null, EntityType.HORSE, EntityType.BOAT, EntityType.PIG, EntityType.MINECART};
+    private static final Material[] BOOTS = {null, Material.LEATHER_BOOTS, Material.IRON_BOOTS, Material.DIAMOND_BOOTS, Material.NETHERITE_BOOTS, Material.CARVED_PUMPKIN};
+
+    private EntityType[] vehicles;
+    private Material[] boots;
+    private boolean[] featherFalling;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        vehicles = new EntityType[SAMPLES];
+        boots = new Material[SAMPLES];
+        featherFalling = new boolean[SAMPLES];
+
+        for (int i = 0; i < SAMPLES; i++) {
+            vehicles[i] = VEHICLES[random.nextInt(VEHICLES.length)];
+            boots[i] = BOOTS[random.nextInt(BOOTS.length)];
+            featherFalling[i] = boots[i] != null && random.nextInt(5) == 0;
+        }
+    }
+
+    @Benchmark
+    public ModifierType getModifier() {
+        index = (index + 1) & (SAMPLES - 1);
+        return ModifierType.of(vehicles[index], boots[index], featherFalling[index]);
+    }
+}
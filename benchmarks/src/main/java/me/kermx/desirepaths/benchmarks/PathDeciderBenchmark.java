@@ -0,0 +1,76 @@
+package me.kermx.desirepaths.benchmarks;
+
+import me.kermx.desirepaths.paths.PathDecider;
+import me.kermx.desirepaths.paths.PlayerSnapshot;
+import me.kermx.desirepaths.paths.WearTracker;
+import me.kermx.desirepaths.rules.ModifierType;
+import me.kermx.desirepaths.rules.PathRules;
+import org.bukkit.GameMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full attempt cycle of the evaluation stage (playerHandler) over all online players.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathDeciderBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int players;
+
+    @Param({"4", "256"})
+    public int transitions;
+
+    private PathRules rules;
+    private PlayerSnapshot[] snapshots;
+    private int[] rolls;
+    private PathDecider decider;
+    private Blackhole blackhole;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole) {
+        this.blackhole = blackhole;
+        final Random random = new Random(42);
+        final UUID worldId = UUID.randomUUID();
+        rules = Stubs.rules(transitions);
+        snapshots = new PlayerSnapshot[players];
+        rolls = new int[players];
+
+        for (int i = 0; i < players; i++) {
+            final UUID playerId = new UUID(0L, i);
+            snapshots[i] = new PlayerSnapshot(Stubs.player(playerId), playerId, worldId, 0,
+                    random.nextInt(2000) + 0.5, 64, random.nextInt(2000) + 0.5,
+                    ModifierType.values()[random.nextInt(ModifierType.values().length)],
+                    random.nextInt(4) == 0, random.nextInt(10) == 0, GameMode.SURVIVAL, false, null);
+            rolls[i] = random.nextInt(100);
+        }
+        decider = new PathDecider(mutation -> this.blackhole.consume(mutation), new WearTracker(120, 5_000_000));
+    }
+
+    @Benchmark
+    public void playerHandler() {
+        for (int i = 0; i < snapshots.length; i++) {
+            decider.decide(snapshots[i], rules, rolls[i]);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package me.kermx.desirepaths.benchmarks;
+
+import me.kermx.desirepaths.rules.BlockLayer;
+import me.kermx.desirepaths.rules.ModifierType;
+import me.kermx.desirepaths.rules.MovementState;
+import me.kermx.desirepaths.rules.PathRules;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The chance and transition lookups of a single attempt (getChance and
+ * blockSwitcher), against the per-call parsing blockSwitcher used to do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathRulesBenchmark {
+    private static final int SAMPLES = 1024;
+
+    @Param({"4", "32", "256"})
+    public int transitions;
+
+    private PathRules rules;
+    private List<String> transitionStrings;
+    private Material[] blocks;
+    private ModifierType[] modifiers;
+    private MovementState[] states;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rules = Stubs.rules(transitions);
+        transitionStrings = Stubs.transitionStrings(transitions);
+
+        final Random random = new Random(42);
+        final List<Material> materials = Stubs.blockMaterials();
+        blocks = new Material[SAMPLES];
+        modifiers = new ModifierType[SAMPLES];
+        states = new MovementState[SAMPLES];
+
+        for (int i = 0; i < SAMPLES; i++) {
+            // Most footsteps land on blocks without a transition
+            blocks[i] = random.nextInt(4) == 0 ? Material.GRASS_BLOCK : materials.get(random.nextInt(materials.size()));
+            modifiers[i] = ModifierType.values()[random.nextInt(ModifierType.values().length)];
+            states[i] = MovementState.values()[random.nextInt(MovementState.values().length)];
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+
+    @Benchmark
+    public int getChance() {
+        final int i = next();
+        return rules.getChance(BlockLayer.BELOW, modifiers[i], states[i]) + rules.getChance(BlockLayer.AT_FEET, modifiers[i], states[i]);
+    }
+
+    @Benchmark
+    public Material compiledTransition() {
+        return rules.getTransition(BlockLayer.BELOW, blocks[next()]);
+    }
+
+    @Benchmark
+    public Material parsedTransition() {
+        final Map<Material, Material> blockSwitcher = new HashMap<>();
+
+        for (final String switchCase : transitionStrings) {
+            final String[] parts = switchCase.split(":");
+            final Material sourceMaterial = Material.matchMaterial(parts[0]);
+            final Material targetMaterial = Material.matchMaterial(parts[1]);
+
+            if (sourceMaterial != null && targetMaterial != null) {
+                blockSwitcher.put(sourceMaterial, targetMaterial);
+            }
+        }
+        return blockSwitcher.get(blocks[next()]);
+    }
+}
@@ -0,0 +1,80 @@
+package me.kermx.desirepaths.benchmarks;
+
+import me.kermx.desirepaths.listeners.PlayerMoveEventListener;
+import me.kermx.desirepaths.managers.MovementTracker;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The PlayerMoveEvent handler, fed a realistic mix of look-only,
+ * same-block and block-crossing moves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerMoveBenchmark {
+    private static final int EVENTS = 4096;
+
+    @Param({"10", "100", "500"})
+    public int players;
+
+    private PlayerMoveEventListener listener;
+    private PlayerMoveEvent[] events;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        final World world = Stubs.world(UUID.randomUUID());
+        final Player[] playerStubs = new Player[players];
+
+        for (int i = 0; i < players; i++) {
+            playerStubs[i] = Stubs.player(new UUID(0L, i));
+        }
+
+        listener = new PlayerMoveEventListener(new MovementTracker());
+        events = new PlayerMoveEvent[EVENTS];
+
+        for (int i = 0; i < EVENTS; i++) {
+            final Location from = new Location(world, random.nextInt(1000) + 0.5, 64, random.nextInt(1000) + 0.5);
+            final Location to = from.clone();
+            final int kind = random.nextInt(10);
+
+            if (kind < 5) {
+                to.setYaw(from.getYaw() + 10); // look only
+            } else if (kind < 8) {
+                to.add(0.1, 0, 0); // same block
+            } else {
+                to.add(1, 0, 0); // new block
+            }
+            events[i] = new PlayerMoveEvent(playerStubs[random.nextInt(players)], from, to);
+        }
+    }
+
+    @Benchmark
+    public void onPlayerMove() {
+        index = (index + 1) & (EVENTS - 1);
+        listener.on(events[index]);
+    }
+}
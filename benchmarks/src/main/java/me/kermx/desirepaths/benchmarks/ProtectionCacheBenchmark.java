@@ -0,0 +1,81 @@
+package me.kermx.desirepaths.benchmarks;
+
+import me.kermx.desirepaths.integrations.ProtectionCache;
+import me.kermx.desirepaths.integrations.ProtectionSource;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The protection checks of canModifyBlock through the decision cache. The
+ * integration itself is a stub, so this measures the cache overhead; a
+ * real region query costs many times more on every miss.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtectionCacheBenchmark {
+    private static final int STEPS = 64;
+
+    @Param({"10", "100", "500"})
+    public int players;
+
+    private ProtectionCache cache;
+    private Player[] playerStubs;
+    private Block[][] walks;
+    private int player;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        final World world = Stubs.world(UUID.randomUUID());
+        cache = new ProtectionCache(30_000L, 20_000);
+        playerStubs = new Player[players];
+        walks = new Block[players][STEPS];
+
+        // Every player walks back and forth over a short trail
+        for (int i = 0; i < players; i++) {
+            playerStubs[i] = Stubs.player(new UUID(0L, i));
+            final int x = random.nextInt(5000);
+            final int z = random.nextInt(5000);
+
+            for (int s = 0; s < STEPS; s++) {
+                walks[i][s] = Stubs.block(world, x + (s % 16), 63, z, Material.GRASS_BLOCK);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean canModifyBlock() {
+        player = (player + 1) % players;
+        if (player == 0) {
+            step = (step + 1) % STEPS;
+        }
+        final Player p = playerStubs[player];
+        final Block block = walks[player][step];
+
+        return cache.isAllowed(ProtectionSource.WORLDGUARD, p, block, () -> true)
+                && cache.isAllowed(ProtectionSource.TOWNY, p, block, () -> true);
+    }
+}
@@ -0,0 +1,167 @@
+package me.kermx.desirepaths.benchmarks;
+
+import me.kermx.desirepaths.rules.BlockLayer;
+import me.kermx.desirepaths.rules.ModifierType;
+import me.kermx.desirepaths.rules.PathRules;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hand-written stand-ins for the Bukkit types the hot path touches.
+ * They answer the handful of calls the plugin makes and nothing else,
+ * so the benchmarks run without a server.
+ */
+final class Stubs {
+    private Stubs() {
+    }
+
+    /**
+     * Returns a player that only knows its UUID and name.
+     */
+    static Player player(final UUID playerId) {
+        return (Player) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[] {Player.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getUniqueId":
+                            return playerId;
+                        case "getName":
+                            return playerId.toString().substring(0, 16);
+                        case "isOnline":
+                            return true;
+                        case "hashCode":
+                            return playerId.hashCode();
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Returns a world that only knows its UID.
+     */
+    static World world(final UUID worldId) {
+        return (World) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[] {World.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getUID":
+                            return worldId;
+                        case "getName":
+                            return "world";
+                        case "hashCode":
+                            return worldId.hashCode();
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Returns a block with a position and a mutable type.
+     */
+    static Block block(final World world, final int x, final int y, final int z, final Material type) {
+        final Material[] current = {type};
+
+        return (Block) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[] {Block.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWorld":
+                            return world;
+                        case "getX":
+                            return x;
+                        case "getY":
+                            return y;
+                        case "getZ":
+                            return z;
+                        case "getType":
+                            return current[0];
+                        case "setType":
+                            current[0] = (Material) args[0];
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Returns the block materials, in a stable order, to build configs from.
+     */
+    static List<Material> blockMaterials() {
+        final List<Material> materials = new ArrayList<>();
+
+        for (final Material material : Material.values()) {
+            if (material.isBlock() && !material.isLegacy() && !material.isAir()) {
+                materials.add(material);
+            }
+        }
+        return materials;
+    }
+
+    /**
+     * Returns the config.yml transitions as FROM:TO strings, padded up to the given size.
+     */
+    static List<String> transitionStrings(final int size) {
+        final List<String> transitions = new ArrayList<>(List.of(
+                "GRASS_BLOCK:DIRT", "DIRT:COARSE_DIRT", "PODZOL:COARSE_DIRT", "COARSE_DIRT:DIRT_PATH"));
+        final List<Material> materials = blockMaterials();
+
+        for (int i = 0; transitions.size() < size; i++) {
+            transitions.add(materials.get(i).name() + ":" + materials.get(i + 1).name());
+        }
+        return transitions.subList(0, size);
+    }
+
+    /**
+     * Compiles rules the same way Config does, with the default modifiers of config.yml.
+     */
+    static PathRules rules(final int transitionCount) {
+        final Map<Material, Material> transitions = new HashMap<>();
+
+        for (final String transition : transitionStrings(transitionCount)) {
+            final String[] parts = transition.split(":");
+            transitions.putIfAbsent(Material.valueOf(parts[0]), Material.valueOf(parts[1]));
+        }
+
+        final Map<BlockLayer, Map<Material, Material>> layers = new EnumMap<>(BlockLayer.class);
+        layers.put(BlockLayer.BELOW, transitions);
+        layers.put(BlockLayer.AT_FEET, Map.of(Material.SNOW, Material.AIR, Material.FERN, Material.AIR));
+
+        final Map<String, Integer> chances = new HashMap<>();
+        chances.put(ModifierType.RIDING_HORSE.name(), 37);
+        chances.put(ModifierType.RIDING_BOAT.name(), 99);
+        chances.put(ModifierType.RIDING_PIG.name(), 30);
+        chances.put(ModifierType.FEATHER_FALLING.name(), 10);
+        chances.put(ModifierType.HAS_BOOTS.name(), 20);
+        chances.put(ModifierType.LEATHER_BOOTS.name(), 11);
+        chances.put(ModifierType.NO_BOOTS.name(), 3);
+
+        final Map<String, Integer> additives = new HashMap<>();
+        additives.put("SPRINTING_BLOCK_BELOW", 13);
+        additives.put("SPRINTING_BLOCK_AT_FEET", 100);
+        additives.put("CROUCHING_BLOCK_BELOW", -10);
+        additives.put("CROUCHING_BLOCK_AT_FEET", -100);
+        additives.put("CLEAR_WEATHER", 0);
+        additives.put("RAIN_WEATHER", 5);
+
+        return new PathRules(layers, chances, additives, Map.of(), true, 0, true, false, false, 300,
+                false, Map.of(Material.MAGMA_BLOCK, Material.LAVA));
+    }
+}
@@ -0,0 +1,286 @@
+package me.kermx.desirepaths.benchmarks;
+
+import me.kermx.desirepaths.DesirePaths;
+import me.kermx.desirepaths.files.Config;
+import me.kermx.desirepaths.paths.BlockMutation;
+import me.kermx.desirepaths.paths.BlockView;
+import me.kermx.desirepaths.paths.PathDecider;
+import me.kermx.desirepaths.paths.PlayerSnapshot;
+import me.kermx.desirepaths.paths.WearTracker;
+import me.kermx.desirepaths.rules.BlockLayer;
+import me.kermx.desirepaths.rules.ModifierType;
+import me.kermx.desirepaths.rules.PathRules;
+import me.kermx.desirepaths.trace.TraceReader;
+import me.kermx.desirepaths.trace.TraceRecord;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Replays a trace recorded with /desirepaths trace through the decision
+ * pipeline, without a server, and reports throughput, allocations and the
+ * block changes it made.
+ * <p>
+ * The blocks start out as the trace saw them and change as the replay
+ * applies paths, the same way blockHandler would minus the protection
+ * checks. The rolls come from a seeded RNG, so the same trace, seed and
+ * plugin version always give the same changes and checksum; a different
+ * checksum between two versions means their decisions differ.
+ * <p>
+ * java -cp target/benchmarks.jar me.kermx.desirepaths.benchmarks.TraceReplay
+ * trace.dptrace [--config config.yml] [--seed 42] [--passes 5]
+ */
+public final class TraceReplay {
+    private final List<TraceRecord> records;
+    private final PathRules rules;
+    private final Config config;
+    private final long seed;
+
+    private TraceReplay(final List<TraceRecord> records, final Config config, final long seed) {
+        this.records = records;
+        this.config = config;
+        this.rules = config.getPathRules();
+        this.seed = seed;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: TraceReplay <trace> [--config config.yml] [--seed 42] [--passes 5]");
+            System.exit(1);
+        }
+
+        Path configFile = null;
+        long seed = 42L;
+        int passes = 5;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--config":
+                    configFile = Paths.get(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "--passes":
+                    passes = Math.max(1, Integer.parseInt(args[i + 1]));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        final List<TraceRecord> records = new ArrayList<>();
+        final String source;
+        try (TraceReader reader = new TraceReader(Paths.get(args[0]))) {
+            source = reader.getSource();
+            TraceRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+
+        final TraceReplay replay = new TraceReplay(records, loadConfig(configFile), seed);
+        System.out.printf(Locale.ROOT, "Trace: %d attempts by %d players over %ds, recorded by %s%n",
+                records.size(), replay.countPlayers(),
+                records.isEmpty() ? 0 : records.get(records.size() - 1).getTimeMillis() / 1000, source);
+
+        Result best = null;
+        for (int pass = 1; pass <= passes; pass++) {
+            final Result result = replay.run();
+            System.out.printf(Locale.ROOT, "Pass %d: %.1f ns/attempt, %.0f attempts/s, %.1f bytes/attempt%n",
+                    pass, result.nanosPerAttempt(), result.attemptsPerSecond(), result.bytesPerAttempt());
+            if (best == null || result.nanos < best.nanos) {
+                best = result;
+            }
+        }
+        best.print();
+    }
+
+    // The plugin's own config.yml unless another one is given. The trace only knows world UIDs, so world profiles do not apply
+    private static Config loadConfig(final Path configFile) throws IOException {
+        final YamlConfiguration yaml;
+
+        if (configFile != null) {
+            yaml = YamlConfiguration.loadConfiguration(configFile.toFile());
+        } else {
+            try (InputStream in = DesirePaths.class.getResourceAsStream("/config.yml")) {
+                if (in == null) {
+                    throw new IOException("config.yml is missing from the plugin jar");
+                }
+                yaml = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        }
+        return new Config(yaml, Logger.getLogger("TraceReplay"));
+    }
+
+    private int countPlayers() {
+        final Set<UUID> players = new HashSet<>();
+        for (final TraceRecord record : records) {
+            players.add(record.getPlayerId());
+        }
+        return players.size();
+    }
+
+    private Result run() {
+        final Result result = new Result(records.size());
+        final ReplayWorld world = new ReplayWorld(rules);
+        final Random random = new Random(seed);
+        final Map<UUID, Player> players = new HashMap<>();
+        final List<BlockMutation> pending = new ArrayList<>();
+        final PathDecider decider = new PathDecider(pending::add,
+                new WearTracker(config.getWearColdAfterMinutes(), config.getWearMaxTrackedBlocks()),
+                world, () -> result.skippedIneligible++);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        final long start = System.nanoTime();
+
+        for (final TraceRecord record : records) {
+            world.observe(record);
+
+            final PlayerSnapshot snapshot = new PlayerSnapshot(
+                    players.computeIfAbsent(record.getPlayerId(), Stubs::player),
+                    record.getPlayerId(), record.getWorldId(), 0,
+                    record.getX(), record.getY(), record.getZ(),
+                    ModifierType.of(record.getVehicle(), record.getBoots(), record.isFeatherFalling()),
+                    record.isSprinting(), record.isSneaking(), record.getGameMode(), false, null);
+            decider.decide(snapshot, rules, random.nextInt(100));
+
+            for (final BlockMutation mutation : pending) {
+                result.rollsPassed++;
+                world.apply(mutation, result);
+            }
+            pending.clear();
+        }
+
+        result.nanos = System.nanoTime() - start;
+        result.allocatedBytes = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return result;
+    }
+
+    /**
+     * The blocks the trace saw, changed by the replay as it goes.
+     */
+    private static final class ReplayWorld implements BlockView {
+        private final Map<UUID, Map<Long, Material>> worlds = new HashMap<>();
+        private final PathRules rules;
+
+        private ReplayWorld(final PathRules rules) {
+            this.rules = rules;
+        }
+
+        private static long key(final int x, final int y, final int z) {
+            return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+        }
+
+        // The first time a block is seen is how it was before any replayed change
+        void observe(final TraceRecord record) {
+            final Map<Long, Material> blocks = worlds.computeIfAbsent(record.getWorldId(), id -> new HashMap<>());
+            final int x = (int) Math.floor(record.getX());
+            final int y = (int) Math.floor(record.getY());
+            final int z = (int) Math.floor(record.getZ());
+
+            blocks.putIfAbsent(key(x, y - 1, z), record.getBelow());
+            blocks.putIfAbsent(key(x, y, z), record.getAtFeet());
+            blocks.putIfAbsent(key(x, y + 1, z), record.getAbove());
+        }
+
+        // Exact per block, where the plugin only knows it per section, so the replay skips a little more
+        @Override
+        public boolean mayChange(final UUID worldId, final int x, final int y, final int z) {
+            final Material type = getType(worldId, x, y, z);
+            return type == null || rules.getTransition(BlockLayer.BELOW, type) != null
+                    || rules.getTransition(BlockLayer.AT_FEET, type) != null;
+        }
+
+        Material getType(final UUID worldId, final int x, final int y, final int z) {
+            final Map<Long, Material> blocks = worlds.get(worldId);
+            return blocks == null ? null : blocks.get(key(x, y, z));
+        }
+
+        // What blockHandler does, minus maintenance mode and the protection checks
+        void apply(final BlockMutation mutation, final Result result) {
+            final Material type = getType(mutation.getWorldId(), mutation.getX(), mutation.getY(), mutation.getZ());
+            if (type == null) {
+                return;
+            }
+            final Material above = getType(mutation.getWorldId(), mutation.getX(), mutation.getY() + 1, mutation.getZ());
+            if (above != null && PathDecider.isRail(above)) {
+                return;
+            }
+            final Material target = mutation.getRules().getTransition(mutation.getLayer(), type);
+            if (target == null) {
+                return;
+            }
+
+            final long key = key(mutation.getX(), mutation.getY(), mutation.getZ());
+            worlds.get(mutation.getWorldId()).put(key, target);
+            result.changed(mutation.getWorldId(), key, type, target);
+        }
+    }
+
+    private static final class Result {
+        private final int attempts;
+        private long nanos;
+        private long allocatedBytes;
+        private long rollsPassed;
+        private long skippedIneligible;
+        private long blockChanges;
+        private long checksum = 1L;
+        private final Set<String> changedBlocks = new HashSet<>();
+        private final Map<String, Long> transitions = new HashMap<>();
+
+        private Result(final int attempts) {
+            this.attempts = attempts;
+        }
+
+        void changed(final UUID worldId, final long key, final Material from, final Material to) {
+            blockChanges++;
+            changedBlocks.add(worldId + ":" + key);
+            transitions.merge(from + " -> " + to, 1L, Long::sum);
+            checksum = checksum * 31 + (worldId.hashCode() ^ Long.hashCode(key) ^ to.name().hashCode());
+        }
+
+        double nanosPerAttempt() {
+            return attempts == 0 ? 0 : (double) nanos / attempts;
+        }
+
+        double attemptsPerSecond() {
+            return nanos == 0 ? 0 : attempts * 1e9 / nanos;
+        }
+
+        double bytesPerAttempt() {
+            return attempts == 0 ? 0 : (double) allocatedBytes / attempts;
+        }
+
+        void print() {
+            System.out.printf(Locale.ROOT, "Best: %.1f ns/attempt, %.0f attempts/s, %.1f bytes/attempt%n",
+                    nanosPerAttempt(), attemptsPerSecond(), bytesPerAttempt());
+            System.out.printf(Locale.ROOT, "Rolls passed: %d, skipped as unchangeable: %d%n", rollsPassed, skippedIneligible);
+            System.out.printf(Locale.ROOT, "Block changes: %d on %d blocks, checksum %016x%n",
+                    blockChanges, changedBlocks.size(), checksum);
+            transitions.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                    .forEach(entry -> System.out.printf(Locale.ROOT, "  %s: %d%n", entry.getKey(), entry.getValue()));
+        }
+    }
+}
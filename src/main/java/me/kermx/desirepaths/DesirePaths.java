@@ -3,42 +3,76 @@ package me.kermx.desirepaths;
 import me.kermx.desirepaths.commands.DesirePathsCommand;
 import me.kermx.desirepaths.files.Config;
 import me.kermx.desirepaths.integrations.*;
+import me.kermx.desirepaths.listeners.ChunkSummaryListener;
+import me.kermx.desirepaths.listeners.EnvironmentListener;
+import me.kermx.desirepaths.listeners.ModifierInvalidationListener;
+import me.kermx.desirepaths.listeners.PathSpeedListener;
 import me.kermx.desirepaths.listeners.PlayerMoveEventListener;
+import me.kermx.desirepaths.listeners.ToggleLoadListener;
+import me.kermx.desirepaths.listeners.WearRegionListener;
+import me.kermx.desirepaths.listeners.WorldRulesListener;
+import me.kermx.desirepaths.managers.BiomeCache;
+import me.kermx.desirepaths.managers.ChunkSummaryCache;
+import me.kermx.desirepaths.managers.ModifierCache;
+import me.kermx.desirepaths.managers.MovementTracker;
 import me.kermx.desirepaths.managers.ToggleManager;
+import me.kermx.desirepaths.managers.WeatherTracker;
+import me.kermx.desirepaths.metrics.PathMetrics;
+import me.kermx.desirepaths.paths.BlockMutation;
+import me.kermx.desirepaths.paths.PathDecider;
+import me.kermx.desirepaths.paths.PathRegrowth;
+import me.kermx.desirepaths.paths.PlayerSnapshot;
+import me.kermx.desirepaths.paths.WearTracker;
+import me.kermx.desirepaths.rules.BlockLayer;
+import me.kermx.desirepaths.rules.MovementState;
+import me.kermx.desirepaths.rules.PathRules;
+import me.kermx.desirepaths.rules.WorldRules;
+import me.kermx.desirepaths.schedulers.BlockMutationQueue;
 import me.kermx.desirepaths.schedulers.PathScheduler;
+import me.kermx.desirepaths.schedulers.RegionSchedulerAdapter;
+import me.kermx.desirepaths.schedulers.SchedulerAdapter;
+import me.kermx.desirepaths.trace.TraceRecorder;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.GameMode;
+import org.bukkit.Chunk;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.command.PluginCommand;
-import org.bukkit.enchantments.Enchantment;
-import org.bukkit.entity.AbstractHorse;
-import org.bukkit.entity.Boat;
-import org.bukkit.entity.Pig;
 import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
-import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 // new features:
-// speed boost when walking on paths
 // papi placeholders, %desirepaths_toggle_status%, %desirepaths_maintenance_status%
-// weather chance modifiers
 // different block switch based on weather
-// different block switch and/or biome chance modifiers
+// different block switch based on biome
 // itemsadder blocks?
 
 public final class DesirePaths extends JavaPlugin implements Listener {
-    private Config fileConfig;
+    private static final String REGROWTH_USER = "#desirepaths";
+
+    private volatile Config fileConfig;
     private Logger logger;
 
-    private PlayerMoveEventListener playerMove;
+    private final MovementTracker movementTracker = new MovementTracker();
+    private final ModifierCache modifierCache = new ModifierCache();
+    private final ChunkSummaryCache chunkSummaryCache = new ChunkSummaryCache();
+    private final WorldRules worldRules = new WorldRules();
+    private final WeatherTracker weatherTracker = new WeatherTracker();
+    private final BiomeCache biomeCache = new BiomeCache();
     private TownyIntegration townyIntegration;
     private WorldGuardIntegration worldGuardIntegration;
     private LandsPathIntegration landsPathIntegration;
@@ -52,25 +86,71 @@ public final class DesirePaths extends JavaPlugin implements Listener {
     public boolean coreProtectEnabled;
 
     private ToggleManager toggleManager;
+    private SchedulerAdapter scheduler;
+    private BlockMutationQueue mutationQueue;
+    private PathDecider pathDecider;
+    private ProtectionCache protectionCache;
+    private WearTracker wearTracker;
+    private final PathRegrowth pathRegrowth = new PathRegrowth();
+    private final PathMetrics metrics = new PathMetrics();
+    private TraceRecorder traceRecorder;
+    private PathScheduler pathScheduler;
+    private PlayerMoveEventListener playerMoveListener;
+    private PathSpeedListener pathSpeedListener;
 
     @Override
     public void onLoad() {
         loadLogger();
+        traceRecorder = new TraceRecorder(logger);
         loadConfig();
         loadCommand();
         loadToggleManager();
-        startScheduler();
         checkForDependencies();
     }
 
     /**
-     * Loads config.
+     * Loads config. Called again on reload, which swaps
+     * the compiled path rules as a whole.
      */
-    private void loadConfig() {
+    public void loadConfig() {
         saveDefaultConfig();
         getConfig().options().copyDefaults(true);
         saveConfig();
         fileConfig = new Config(getConfig(), getLogger());
+        metrics.setEnabled(fileConfig.isMetricsEnabled());
+        worldRules.update(fileConfig.getPathRules(), fileConfig::getPathRules);
+
+        if (protectionCache == null) {
+            protectionCache = new ProtectionCache(fileConfig.getProtectionCacheTtlMillis(), fileConfig.getProtectionCacheMaxEntries());
+        } else {
+            protectionCache.configure(fileConfig.getProtectionCacheTtlMillis(), fileConfig.getProtectionCacheMaxEntries());
+        }
+
+        if (wearTracker == null) {
+            // Whether wear is persisted is only read here, so it takes effect on restart
+            wearTracker = new WearTracker(fileConfig.getWearColdAfterMinutes(), fileConfig.getWearMaxTrackedBlocks(),
+                    fileConfig.isWearPersistent() ? getDataFolder().toPath().resolve("wear") : null, getLogger());
+        } else {
+            wearTracker.configure(fileConfig.getWearColdAfterMinutes(), fileConfig.getWearMaxTrackedBlocks());
+        }
+        if (!fileConfig.isWearEnabled()) {
+            wearTracker.clear();
+        }
+
+        biomeCache.configure(fileConfig.isBiomeModifiersUsed());
+        chunkSummaryCache.configure(fileConfig.isChunkSummariesEnabled(), fileConfig.getTransitionSources(),
+                fileConfig.getChunkSummaryRescanSeconds(), fileConfig.getChunkSummaryMaxEntries());
+
+        pathRegrowth.configure(fileConfig.isDecayEnabled(), fileConfig.getDecayIdleMinutes(),
+                fileConfig.getDecayIdleMinutesByMaterial(), fileConfig.getDecayMaxTrackedBlocks(),
+                fileConfig.getDecayTickBudgetNanos());
+        if (fileConfig.isDecayEnabled()) {
+            for (Material source : fileConfig.getTransitionSources()) {
+                if (!PathRegrowth.isRevertible(source)) {
+                    logger.warning("pathDecay: " + source + " spans several blocks or depends on its neighbours, it does not grow back");
+                }
+            }
+        }
     }
 
     /**
@@ -81,7 +161,7 @@ public final class DesirePaths extends JavaPlugin implements Listener {
     }
 
     private void loadToggleManager() {
-        new ToggleManager(this);
+        toggleManager = new ToggleManager(this);
     }
 
     /**
@@ -98,7 +178,135 @@ public final class DesirePaths extends JavaPlugin implements Listener {
     }
 
     private void startScheduler() {
-        new PathScheduler(this, playerMove, fileConfig).startScheduler();
+        scheduler = SchedulerAdapter.create(this);
+        mutationQueue = new BlockMutationQueue(this, scheduler, this::blockHandler);
+        mutationQueue.start();
+        pathDecider = new PathDecider(mutation -> {
+            metrics.increment(PathMetrics.Counter.ROLLS_PASSED);
+            mutationQueue.submit(mutation);
+        }, wearTracker, chunkSummaryCache, () -> metrics.increment(PathMetrics.Counter.SKIPPED_INELIGIBLE));
+        // Forget blocks nobody walks on anymore, once a minute
+        scheduler.runRepeating(() -> scheduler.runAsync(wearTracker::evictCold), 1200L, 1200L);
+        // Write the changed wear pages out in the background
+        final long saveInterval = fileConfig.getWearSaveIntervalSeconds() * 20L;
+        scheduler.runRepeating(() -> scheduler.runAsync(wearTracker::flush), saveInterval, saveInterval);
+        if (fileConfig.isWearEnabled() && fileConfig.isWearPersistent()) {
+            final WearRegionListener wearRegionListener = new WearRegionListener(wearTracker, scheduler);
+            getServer().getPluginManager().registerEvents(wearRegionListener, this);
+            // Chunks loaded before, e.g. after a plugin reload, can only be listed off region-threaded servers
+            if (!scheduler.isRegionThreaded()) {
+                for (World world : Bukkit.getWorlds()) {
+                    for (Chunk chunk : world.getLoadedChunks()) {
+                        wearRegionListener.track(chunk);
+                    }
+                }
+            }
+        }
+        pathRegrowth.start(scheduler, this::pathReverted);
+        // The first run reads what the last shutdown saved, every next one saves
+        final long regrowthSaveInterval = fileConfig.getDecaySaveIntervalSeconds() * 20L;
+        scheduler.runAsync(this::persistRegrowth);
+        scheduler.runRepeating(() -> scheduler.runAsync(this::persistRegrowth), regrowthSaveInterval, regrowthSaveInterval);
+        // Players that were already online, e.g. after a plugin reload, missed their pre-login
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            final UUID playerId = player.getUniqueId();
+            scheduler.runAsync(() -> toggleManager.load(playerId));
+        }
+        pathScheduler = new PathScheduler(this, movementTracker, scheduler);
+        pathScheduler.startScheduler();
+    }
+
+    /**
+     * Reloads config.yml and restarts only what depends on a changed setting,
+     * so caches the change does not affect stay warm.
+     *
+     * @return What was restarted
+     */
+    public List<String> reload() {
+        final Config oldConfig = fileConfig;
+        reloadConfig();
+        loadConfig();
+        final List<String> restarted = new ArrayList<>();
+
+        if (pathScheduler != null && !fileConfig.hasSameSchedulerSettings(oldConfig)) {
+            pathScheduler.restartScheduler();
+            restarted.add("attemptFrequency");
+        }
+        if (fileConfig.isMovementCheckEnabled() != oldConfig.isMovementCheckEnabled()) {
+            updateMovementCheck();
+            restarted.add("movementCheckEnabled");
+        }
+        if (!fileConfig.hasSameSpeedBoostSettings(oldConfig)) {
+            updatePathSpeed();
+            restarted.add("pathSpeedBoost");
+        }
+        if (!fileConfig.hasSameIntegrationSettings(oldConfig, "townyModifiers")) {
+            protectionCache.invalidate(ProtectionSource.TOWNY);
+            restarted.add("townyModifiers");
+        }
+        if (!fileConfig.hasSameIntegrationSettings(oldConfig, "griefPreventionIntegration")) {
+            protectionCache.invalidate(ProtectionSource.GRIEF_PREVENTION);
+            restarted.add("griefPreventionIntegration");
+        }
+        return restarted;
+    }
+
+    // The move listener only runs while the movement check is on
+    private void updateMovementCheck() {
+        if (fileConfig.isMovementCheckEnabled() && playerMoveListener == null) {
+            playerMoveListener = new PlayerMoveEventListener(movementTracker);
+            getServer().getPluginManager().registerEvents(playerMoveListener, this);
+        } else if (!fileConfig.isMovementCheckEnabled() && playerMoveListener != null) {
+            HandlerList.unregisterAll(playerMoveListener);
+            playerMoveListener = null;
+            movementTracker.clear();
+        }
+    }
+
+    // The speed listener only runs while the boost is on, and is replaced when its settings change
+    private void updatePathSpeed() {
+        if (pathSpeedListener != null) {
+            HandlerList.unregisterAll(pathSpeedListener);
+            pathSpeedListener.removeAll(scheduler);
+            pathSpeedListener = null;
+        }
+        if (fileConfig.isSpeedBoostEnabled() && !fileConfig.getSpeedBoostSurfaces().isEmpty()) {
+            pathSpeedListener = new PathSpeedListener(fileConfig.getSpeedBoostSurfaces(), fileConfig.getSpeedBoostAmount(),
+                    RegionSchedulerAdapter.isSupported());
+            getServer().getPluginManager().registerEvents(pathSpeedListener, this);
+        }
+    }
+
+    /**
+     * Registers listeners.
+     */
+    private void registerListeners() {
+        final PluginManager pluginManager = getServer().getPluginManager();
+
+        updateMovementCheck();
+        updatePathSpeed();
+
+        pluginManager.registerEvents(new ModifierInvalidationListener(modifierCache), this);
+        pluginManager.registerEvents(new ChunkSummaryListener(chunkSummaryCache), this);
+        final WorldRulesListener worldRulesListener = new WorldRulesListener(worldRules, weatherTracker);
+        pluginManager.registerEvents(worldRulesListener, this);
+        // Worlds loaded before us, the listener registers the later ones
+        for (World world : Bukkit.getWorlds()) {
+            worldRulesListener.register(world);
+        }
+        pluginManager.registerEvents(new EnvironmentListener(worldRules, weatherTracker, biomeCache), this);
+        pluginManager.registerEvents(new ToggleLoadListener(toggleManager), this);
+
+        // Integrations invalidate their cached protection decisions on claim changes
+        if (townyEnabled && townyIntegration != null) {
+            pluginManager.registerEvents(townyIntegration, this);
+        }
+        if (landsEnabled && landsPathIntegration != null) {
+            pluginManager.registerEvents(landsPathIntegration, this);
+        }
+        if (griefPreventionEnabled && griefPreventionIntegration != null) {
+            pluginManager.registerEvents(griefPreventionIntegration, this);
+        }
     }
 
     /**
@@ -173,151 +381,198 @@ public final class DesirePaths extends JavaPlugin implements Listener {
         if (coreProtectEnabled && coreProtectIntegration.getAPI() != null){
             Bukkit.getConsoleSender()
                     .sendMessage(ChatColor.GOLD + ">>" + ChatColor.GREEN + " DesirePaths-CoreProtect integration successful");
+            coreProtectIntegration.startLogging(fileConfig.getCoreProtectQueueCapacity(), fileConfig.getCoreProtectBatchSize(),
+                    fileConfig.getCoreProtectBackPressure());
         }
+
+        registerListeners();
+        startScheduler();
     }
 
-    private void playerHandler(Player player, int noBootsChance, int leatherBootsChance, int hasBootsChance,
-                               int featherFallingChance, int ridingHorseChance, int ridingBoatChance, int ridingPigChance,
-                               int sprintingBlockBelowChance, int sprintingBlockAtFeetChance, int crouchingBlockBelowChance,
-                               int crouchingBlockAtFeetChance, List<String> blockAtFeetSwitcherConfig, List<String> blockBelowSwitcherConfig) {
-        if (player.getGameMode() != GameMode.SURVIVAL && !enableInCreativeMode) {
-            return;
-        }
-        boolean pathsToggledOff = !getToggleManager().getToggle(player.getUniqueId());
-        if (pathsToggledOff) {
-            return;
-        }
-        int chance = getChance(player, noBootsChance, leatherBootsChance, hasBootsChance, featherFallingChance,
-                ridingHorseChance, ridingBoatChance, ridingPigChance);
-        int randomNum = random.nextInt(100);
-        Bukkit.getScheduler().runTask(this,
-                () -> blockHandler(player.getLocation().getBlock().getRelative(BlockFace.DOWN), player, chance,
-                        randomNum, sprintingBlockBelowChance, crouchingBlockBelowChance, blockBelowSwitcherConfig));
-        Bukkit.getScheduler().runTask(this,
-                () -> blockHandler(player.getLocation().getBlock(), player, chance,
-                        randomNum, sprintingBlockAtFeetChance, crouchingBlockAtFeetChance, blockAtFeetSwitcherConfig));
-    }
-
-    public static int getChance(Player player, int noBootsChance, int leatherBootsChance, int hasBootsChance,
-                                int featherFallingChance, int ridingHorseChance, int ridingBoatChance, int ridingPigChance) {
-        return switch (getModifier(player)) {
-            case RIDING_HORSE -> ridingHorseChance;
-            case RIDING_BOAT -> ridingBoatChance;
-            case RIDING_PIG -> ridingPigChance;
-            case FEATHER_FALLING -> featherFallingChance;
-            case HAS_BOOTS -> hasBootsChance;
-            case LEATHER_BOOTS -> leatherBootsChance;
-            case NO_BOOTS -> noBootsChance;
-        };
-    }
-
-    // determine modifier to use for chance
-    private static modifierType getModifier(Player player) {
-        if (player.getVehicle() instanceof AbstractHorse)
-            return modifierType.RIDING_HORSE;
-        if (player.getVehicle() instanceof Boat)
-            return modifierType.RIDING_BOAT;
-        if (player.getVehicle() instanceof Pig)
-            return modifierType.RIDING_PIG;
-        ItemStack boots = player.getInventory().getBoots();
-        if (boots == null)
-            return modifierType.NO_BOOTS;
-        Material bootMaterial = boots.getType();
-        Set<Material> bootMaterials = EnumSet.of(Material.IRON_BOOTS, Material.GOLDEN_BOOTS, Material.DIAMOND_BOOTS,
-                Material.NETHERITE_BOOTS, Material.LEATHER_BOOTS);
-        Optional<Enchantment> featherFallingEnchantment = boots.getEnchantments().keySet().stream()
-                .filter(Enchantment.PROTECTION_FALL::equals).findFirst();
-        if (bootMaterials.contains(bootMaterial)) {
-            if (featherFallingEnchantment.isPresent()) {
-                return modifierType.FEATHER_FALLING;
-            } else {
-                return modifierType.HAS_BOOTS;
-            }
-        } else if (bootMaterial == Material.LEATHER_BOOTS) {
-            return modifierType.LEATHER_BOOTS;
-        } else {
-            return modifierType.NO_BOOTS;
-        }
+    /**
+     * Rolls the dice for the given player and queues the block changes.
+     * Only reads the snapshot, so it is safe to call off the main thread.
+     *
+     * @param snapshot The snapshot of the player
+     */
+    public void playerHandler(PlayerSnapshot snapshot) {
+        long start = metrics.start();
+        pathRegrowth.touch(snapshot);
+        pathDecider.decide(snapshot, worldRules.get(snapshot.getWorldIndex()), ThreadLocalRandom.current().nextInt(100));
+        metrics.stop(PathMetrics.Stage.CHANCE_ROLL, start);
     }
 
-    // Handle block at the players feet
-    private void blockHandler(Block block, Player player, int chance, int randomNum, int sprintingChance,
-                              int crouchingChance, List<String> switcherConfig) {
-        if (!canModifyBlock(player,block)){
-            return;
-        }
+    public static int getChance(PlayerSnapshot snapshot, PathRules rules, BlockLayer layer) {
+        return rules.getChance(layer, snapshot.getModifier(), MovementState.of(snapshot.isSprinting(), snapshot.isSneaking()))
+                + rules.getEnvironmentModifier(snapshot.isRaining(), snapshot.getBiome());
+    }
 
-        if (!player.isSprinting() && !player.isSneaking() && randomNum < chance) {
-            blockSwitcher(block, switcherConfig, player);
-        }
-        if (player.isSprinting() && randomNum < chance + sprintingChance) {
-            blockSwitcher(block, switcherConfig, player);
-        }
-        if (player.isSneaking() && randomNum < chance + crouchingChance){
-            blockSwitcher(block, switcherConfig, player);
+    // Apply a queued mutation, called by the mutation queue on the thread owning the block
+    private void blockHandler(Block block, BlockMutation mutation) {
+        PathRules rules = mutation.getRules();
+        Player player = mutation.getPlayer();
+        Material type = block.getType();
+        if (rules.getTransition(mutation.getLayer(), type) == null || !canModifyBlock(player, block, rules)) {
+            return;
         }
+        blockSwitcher(block, type, mutation.getLayer(), player, rules);
     }
 
-    private boolean canModifyBlock(Player player, Block block) {
-        if (toggleManager.getMaintenanceMode() ||
-                disabledWorlds.contains(player.getWorld().getName()) ||
-                player.getLocation().getY() % 1 != 0) {
+    private boolean canModifyBlock(Player player, Block block, PathRules rules) {
+        if (toggleManager.getMaintenanceMode()) {
+            metrics.increment(PathMetrics.Counter.BLOCKED_BY_MAINTENANCE);
             return false;
         }
-        Block blockAbove = block.getRelative(BlockFace.UP);
-        if (blockAbove.getType() == Material.RAIL || blockAbove.getType() == Material.POWERED_RAIL || blockAbove.getType() == Material.ACTIVATOR_RAIL || blockAbove.getType() == Material.DETECTOR_RAIL) {
+        if (PathDecider.isRail(block.getRelative(BlockFace.UP).getType())) {
+            metrics.increment(PathMetrics.Counter.BLOCKED_BY_RAIL);
             return false;
         }
-        if (worldGuardEnabled && worldGuardIntegration.checkFlag(player)) {
+        if (worldGuardEnabled && !isAllowed(ProtectionSource.WORLDGUARD, player, block,
+                () -> !worldGuardIntegration.checkFlag(player, block.getLocation()))) {
             return false;
         }
-        if (landsEnabled && landsPathIntegration.checkFlag(player)) {
+        if (landsEnabled && !isAllowed(ProtectionSource.LANDS, player, block,
+                () -> !landsPathIntegration.checkFlag(player, block.getLocation()))) {
             return false;
         }
-        if (griefPreventionEnabled && !griefPreventionIntegration.checkLocation(player, block.getLocation())) {
+        if (griefPreventionEnabled && !isAllowed(ProtectionSource.GRIEF_PREVENTION, player, block,
+                () -> griefPreventionIntegration.checkLocation(player, block.getLocation()))) {
             return false;
         }
-        if (townyEnabled && !townyIntegration.checkLocation(player, block.getLocation())) {
+        if (townyEnabled && !isAllowed(ProtectionSource.TOWNY, player, block,
+                () -> townyIntegration.checkLocation(player, block.getLocation()))) {
             return false;
         }
         return true;
     }
 
-    private void blockSwitcher(Block block, List<String> switcherConfig, Player player) {
-        Material type = block.getType();
-        Map<Material, Material> blockSwitcher = new HashMap<>();
-        for (String switchCase : switcherConfig) {
-            String[] parts = switchCase.split(":");
-            Material sourceMaterial = Material.matchMaterial(parts[0]);
-            Material targetMaterial = Material.matchMaterial(parts[1]);
-            if (sourceMaterial != null && targetMaterial != null) {
-                blockSwitcher.put(sourceMaterial, targetMaterial);
+    // One integration check, through the protection cache and timed
+    private boolean isAllowed(ProtectionSource source, Player player, Block block, BooleanSupplier check) {
+        long start = metrics.start();
+        boolean allowed = protectionCache.isAllowed(source, player, block, check);
+        metrics.stopCheck(source, start, allowed);
+        return allowed;
+    }
+
+    // Physics only for the transitions that need it, the others skip the neighbour updates
+    private void blockSwitcher(Block block, Material type, BlockLayer layer, Player player, PathRules rules) {
+        long start = metrics.start();
+        Material targetMaterial = rules.getTransition(layer, type);
+        boolean logToCoreProtect = coreProtectEnabled && rules.isLogPathsToCoreProtect();
+        BlockData data = logToCoreProtect ? block.getBlockData() : null;
+        block.setType(targetMaterial, rules.isPhysicsNeeded(layer, type));
+        chunkSummaryCache.mark(block, targetMaterial);
+        pathRegrowth.record(block, type, targetMaterial);
+        //coreprotect logging, queued and handed to CoreProtect off the main thread
+        if (logToCoreProtect){
+            coreProtectIntegration.logPathChange(player, block, type, data, targetMaterial);
+        }
+        metrics.increment(PathMetrics.Counter.BLOCKS_CHANGED);
+        metrics.stop(PathMetrics.Stage.BLOCK_SWITCH, start);
+    }
+
+    // Off the main thread, also on shutdown
+    private void persistRegrowth() {
+        if (!fileConfig.isDecayEnabled() || !fileConfig.isDecayPersistent()) {
+            return;
+        }
+        final Path file = getDataFolder().toPath().resolve("regrowth.dat");
+        try {
+            if (pathRegrowth.isLoaded()) {
+                pathRegrowth.save(file);
             } else {
-                Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + ">>" + ChatColor.RED
-                        + " Invalid block switch case in blockModifications: " + switchCase);
+                pathRegrowth.load(file);
             }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not " + (pathRegrowth.isLoaded() ? "save" : "load") + " the paths waiting to grow back", e);
         }
-        Material targetMaterial = blockSwitcher.get(type);
-        if (targetMaterial != null) {
-            block.setType(targetMaterial);
-            //coreprotect logging
-            if (block.getType() == targetMaterial){
-                if (coreProtectEnabled && logPathsToCoreProtect){
-                    coreProtectIntegration.logPathChangesToCoreProtectRemoval(player, block.getLocation(), type, block.getBlockData());
-                    coreProtectIntegration.logPathChangesToCoreProtectPlacement(player, block.getLocation(), targetMaterial, block.getBlockData());
-                }
-            }
+    }
+
+    // Reverts are logged like the changes they undo, under a name of their own
+    private void pathReverted(Block block, Material removedType, BlockData removedData, Material placedType) {
+        chunkSummaryCache.mark(block, placedType);
+        if (coreProtectEnabled && worldRules.get(worldRules.getId(block.getWorld().getUID())).isLogPathsToCoreProtect()){
+            coreProtectIntegration.logPathChange(REGROWTH_USER, block, removedType, removedData, placedType);
         }
     }
 
+    public Config getFileConfig() {
+        return fileConfig;
+    }
+
+    public ModifierCache getModifierCache() {
+        return modifierCache;
+    }
+
+    public WorldRules getWorldRules() {
+        return worldRules;
+    }
+
+    public WeatherTracker getWeatherTracker() {
+        return weatherTracker;
+    }
+
+    public BiomeCache getBiomeCache() {
+        return biomeCache;
+    }
+
+    public ChunkSummaryCache getChunkSummaryCache() {
+        return chunkSummaryCache;
+    }
+
+    public ProtectionCache getProtectionCache() {
+        return protectionCache;
+    }
+
+    public PathMetrics getMetrics() {
+        return metrics;
+    }
+
+    public TraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
+    public SchedulerAdapter getScheduler() {
+        return scheduler;
+    }
+
     public ToggleManager getToggleManager() {
         return toggleManager;
     }
 
     @Override
     public void onDisable() {
-
-        Bukkit.getScheduler().cancelTasks(this);
+        if (traceRecorder != null) {
+            traceRecorder.close();
+        }
+        // The boost is saved with the players, so take it off while they are still here
+        if (pathSpeedListener != null) {
+            pathSpeedListener.removeAll(null);
+        }
+        if (mutationQueue != null) {
+            mutationQueue.stop();
+        }
+        // After the mutation queue, so every applied change makes it into CoreProtect
+        if (coreProtectIntegration != null) {
+            coreProtectIntegration.stopLogging();
+        }
+        if (protectionCache != null && protectionCache.getHits() + protectionCache.getMisses() > 0) {
+            logger.info(String.format("Protection cache hit ratio: %.1f%% (%d hits, %d misses)",
+                    protectionCache.getHitRatio() * 100, protectionCache.getHits(), protectionCache.getMisses()));
+        }
+        if (scheduler != null) {
+            scheduler.cancelAll();
+        }
+        if (wearTracker != null) {
+            wearTracker.clear();
+        }
+        // Not while a load still runs, what it did not read yet would be lost
+        if (pathRegrowth.isLoaded()) {
+            persistRegrowth();
+        }
+        if (toggleManager != null) {
+            toggleManager.close();
+        }
         Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + ">>" + ChatColor.RED + " DesirePaths Disabled");
     }
 }
\ No newline at end of file
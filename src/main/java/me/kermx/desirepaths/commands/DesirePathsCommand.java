@@ -3,7 +3,9 @@ package me.kermx.desirepaths.commands;
 import me.kermx.desirepaths.DesirePaths;
 import me.kermx.desirepaths.commands.subcommands.MaintenanceCommand;
 import me.kermx.desirepaths.commands.subcommands.ReloadCommand;
+import me.kermx.desirepaths.commands.subcommands.StatsCommand;
 import me.kermx.desirepaths.commands.subcommands.ToggleCommand;
+import me.kermx.desirepaths.commands.subcommands.TraceCommand;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -40,6 +42,14 @@ public class DesirePathsCommand extends DesirePathsSubManager {
                 new ToggleCommand(plugin),
                 new String[] {"toggle"},
                 new Permission("desirepaths.toggle"));
+        addSubCommand(
+                new StatsCommand(plugin),
+                new String[] {"stats"},
+                new Permission("desirepaths.stats"));
+        addSubCommand(
+                new TraceCommand(plugin),
+                new String[] {"trace"},
+                new Permission("desirepaths.trace"));
     }
 
     /**
@@ -63,7 +73,7 @@ public class DesirePathsCommand extends DesirePathsSubManager {
                 } // Here you can add a message if no permissions found via else. Or you can put it in the getWrapper method.
             }
         }
-        sender.sendMessage(ChatColor.RED + "Incorrect Usage! Try: /desirepaths <reload|toggle> [player]");
+        sender.sendMessage(ChatColor.RED + "Incorrect Usage! Try: /desirepaths <reload|toggle|stats|trace> [player]");
         return true; // We do not need to return false as we handled the command properly here
     }
 
@@ -28,9 +28,12 @@ public class ReloadCommand implements DesirePathsSub {
     */
     @Override
     public void onCommand(final CommandSender sender, final String[] args) {
-        plugin.reloadConfig();
-        plugin.loadConfig();
+        final List<String> restarted = plugin.reload();
+
         sender.sendMessage(ChatColor.GREEN + "DesirePaths configuration reloaded!");
+        if (!restarted.isEmpty()) {
+            sender.sendMessage(ChatColor.GREEN + "Applied changes to: " + ChatColor.WHITE + String.join(", ", restarted));
+        }
     }
 
     /**
@@ -0,0 +1,122 @@
+package me.kermx.desirepaths.commands.subcommands;
+
+import me.kermx.desirepaths.DesirePaths;
+import me.kermx.desirepaths.commands.DesirePathsSub;
+import me.kermx.desirepaths.integrations.ProtectionSource;
+import me.kermx.desirepaths.metrics.LatencyHistogram;
+import me.kermx.desirepaths.metrics.PathMetrics;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+* A class for Stats sub command.
+*/
+public class StatsCommand implements DesirePathsSub {
+    private final DesirePaths plugin;
+
+    /**
+    * Constructs this class on initialization.
+    *
+    * @param plugin The plugin's instance
+    */
+    public StatsCommand(final DesirePaths plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+    * If the method was triggered, we process it.
+    * Without arguments the stats are shown, "dump"
+    * writes them to a CSV file and "reset" clears them.
+    *
+    * @param sender The sender
+    * @param args   Args of the command
+    */
+    @Override
+    public void onCommand(final CommandSender sender, final String[] args) {
+        final PathMetrics metrics = plugin.getMetrics();
+
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage(ChatColor.GREEN + "DesirePaths stats reset!");
+        } else if (args.length >= 2 && args[1].equalsIgnoreCase("dump")) {
+            dump(sender, metrics);
+        } else {
+            show(sender, metrics);
+        }
+    }
+
+    private void show(final CommandSender sender, final PathMetrics metrics) {
+        final long seconds = Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - metrics.getSinceMillis()));
+        final long cycles = metrics.get(PathMetrics.Counter.CYCLES);
+        final long attempts = metrics.get(PathMetrics.Counter.ATTEMPTS);
+
+        sender.sendMessage(ChatColor.GOLD + "DesirePaths stats over the last " + seconds + "s"
+                + (metrics.isEnabled() ? "" : ChatColor.RED + " (collecting is disabled)"));
+        sender.sendMessage(ChatColor.GREEN + "Cycles: " + ChatColor.WHITE + cycles
+                + ChatColor.GREEN + "  Attempts: " + ChatColor.WHITE + attempts
+                + ChatColor.GREEN + "  Per cycle: " + ChatColor.WHITE + String.format(Locale.ROOT, "%.1f", cycles == 0 ? 0.0 : (double) attempts / cycles));
+        sender.sendMessage(ChatColor.GREEN + "Rolls passed: " + ChatColor.WHITE + metrics.get(PathMetrics.Counter.ROLLS_PASSED)
+                + ChatColor.GREEN + "  Skipped, cannot change: " + ChatColor.WHITE + metrics.get(PathMetrics.Counter.SKIPPED_INELIGIBLE)
+                + ChatColor.GREEN + "  Blocks changed: " + ChatColor.WHITE + metrics.get(PathMetrics.Counter.BLOCKS_CHANGED));
+        sender.sendMessage(ChatColor.GREEN + "Blocked by maintenance: " + ChatColor.WHITE + metrics.get(PathMetrics.Counter.BLOCKED_BY_MAINTENANCE)
+                + ChatColor.GREEN + "  by rails: " + ChatColor.WHITE + metrics.get(PathMetrics.Counter.BLOCKED_BY_RAIL)
+                + ChatColor.GREEN + "  Dropped, queue full: " + ChatColor.WHITE + metrics.get(PathMetrics.Counter.MUTATIONS_DROPPED));
+
+        for (final PathMetrics.Stage stage : PathMetrics.Stage.values()) {
+            sender.sendMessage(line(stage.getKey(), metrics.get(stage), null));
+        }
+        for (final ProtectionSource source : ProtectionSource.values()) {
+            final LatencyHistogram check = metrics.getCheck(source);
+
+            if (check.getCount() > 0) {
+                sender.sendMessage(line(source.name().toLowerCase(Locale.ROOT), check, metrics.getBlocked(source)));
+            }
+        }
+    }
+
+    private static String line(final String name, final LatencyHistogram histogram, final Long blocked) {
+        return ChatColor.GREEN + name + ": " + ChatColor.WHITE + histogram.getCount()
+                + (blocked == null ? "" : ChatColor.GREEN + " blocked " + ChatColor.WHITE + blocked)
+                + ChatColor.GREEN + " mean " + ChatColor.WHITE + micros(histogram.getMeanNanos())
+                + ChatColor.GREEN + " p99 " + ChatColor.WHITE + micros(histogram.getPercentileNanos(99))
+                + ChatColor.GREEN + " max " + ChatColor.WHITE + micros(histogram.getMaxNanos());
+    }
+
+    private static String micros(final long nanos) {
+        return String.format(Locale.ROOT, "%.1fus", nanos / 1000.0);
+    }
+
+    private void dump(final CommandSender sender, final PathMetrics metrics) {
+        final String name = "stats-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv";
+        final Path file = plugin.getDataFolder().toPath().resolve("stats").resolve(name);
+
+        plugin.getScheduler().runAsync(() -> {
+            try {
+                metrics.writeCsv(file);
+                sender.sendMessage(ChatColor.GREEN + "DesirePaths stats written to stats/" + name);
+            } catch (final IOException e) {
+                sender.sendMessage(ChatColor.RED + "Could not write stats/" + name + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+    * When tab complete is triggered, we process it.
+    *
+    * @param sender The sender
+    * @param args   Args of the command
+    * @return The options
+    */
+    @Override
+    public List<String> onTabComplete(final CommandSender sender, final String[] args) {
+        return args.length == 2 ? List.of("dump", "reset") : List.of();
+    }
+}
@@ -0,0 +1,95 @@
+package me.kermx.desirepaths.commands.subcommands;
+
+import me.kermx.desirepaths.DesirePaths;
+import me.kermx.desirepaths.commands.DesirePathsSub;
+import me.kermx.desirepaths.trace.TraceRecorder;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+* A class for Trace sub command.
+*/
+public class TraceCommand implements DesirePathsSub {
+    private static final long DEFAULT_SECONDS = 300L;
+
+    private final DesirePaths plugin;
+
+    /**
+    * Constructs this class on initialization.
+    *
+    * @param plugin The plugin's instance
+    */
+    public TraceCommand(final DesirePaths plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+    * If the method was triggered, we process it.
+    * "start [seconds]" records the path attempts to a
+    * file in the traces folder, "stop" ends it early.
+    *
+    * @param sender The sender
+    * @param args   Args of the command
+    */
+    @Override
+    public void onCommand(final CommandSender sender, final String[] args) {
+        final TraceRecorder recorder = plugin.getTraceRecorder();
+
+        if (args.length >= 2 && args[1].equalsIgnoreCase("start")) {
+            start(sender, recorder, args);
+        } else if (args.length >= 2 && args[1].equalsIgnoreCase("stop")) {
+            final Path file = recorder.stop();
+            sender.sendMessage(file == null
+                    ? ChatColor.RED + "No trace is being recorded."
+                    : ChatColor.GREEN + "Trace stopped, writing traces/" + file.getFileName());
+        } else {
+            sender.sendMessage(ChatColor.RED + "Usage: /desirepaths trace <start [seconds]|stop>");
+        }
+    }
+
+    private void start(final CommandSender sender, final TraceRecorder recorder, final String[] args) {
+        long seconds = DEFAULT_SECONDS;
+
+        if (args.length >= 3) {
+            try {
+                seconds = Long.parseLong(args[2]);
+            } catch (final NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + args[2] + " is not a number of seconds.");
+                return;
+            }
+        }
+
+        final String name = "trace-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".dptrace";
+        final Path file = plugin.getDataFolder().toPath().resolve("traces").resolve(name);
+        final String source = "DesirePaths " + plugin.getDescription().getVersion() + " on " + Bukkit.getVersion();
+
+        try {
+            if (recorder.start(file, source, Math.max(1L, seconds))) {
+                sender.sendMessage(ChatColor.GREEN + "Recording path attempts to traces/" + name + " for " + seconds + "s");
+            } else {
+                sender.sendMessage(ChatColor.RED + "A trace is already being recorded.");
+            }
+        } catch (final IOException e) {
+            sender.sendMessage(ChatColor.RED + "Could not create traces/" + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+    * When tab complete is triggered, we process it.
+    *
+    * @param sender The sender
+    * @param args   Args of the command
+    * @return The options
+    */
+    @Override
+    public List<String> onTabComplete(final CommandSender sender, final String[] args) {
+        return args.length == 2 ? List.of("start", "stop") : List.of();
+    }
+}
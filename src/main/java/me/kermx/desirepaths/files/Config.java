@@ -1,8 +1,11 @@
 package me.kermx.desirepaths.files;
 
-import org.bukkit.Bukkit;
+import me.kermx.desirepaths.integrations.CoreProtectLogQueue;
+import me.kermx.desirepaths.paths.WearTracker;
+import me.kermx.desirepaths.rules.BlockLayer;
+import me.kermx.desirepaths.rules.PathRules;
 import org.bukkit.Material;
-import org.bukkit.World;
+import org.bukkit.block.Biome;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
@@ -14,18 +17,67 @@ public class Config {
     private final Logger logger;
 
     // General settings
-    private List<World> disabledWorlds;
+    private Set<String> disabledWorlds;
     private boolean creativeModeAllowed;
     private boolean movementCheckEnabled;
     private int attemptFrequency;
+    private long mutationTickBudgetNanos;
+    private int mutationMaxPending;
+    private long protectionCacheTtlMillis;
+    private int protectionCacheMaxEntries;
+    private boolean chunkSummariesEnabled;
+    private int chunkSummaryRescanSeconds;
+    private int chunkSummaryMaxEntries;
+    private boolean wearEnabled;
+    private int wearThreshold;
+    private int wearColdAfterMinutes;
+    private int wearMaxTrackedBlocks;
+    private boolean wearPersistent;
+    private int wearSaveIntervalSeconds;
+    private boolean decayEnabled;
+    private int decayIdleMinutes;
+    private Map<Material, Integer> decayIdleMinutesByMaterial;
+    private int decayMaxTrackedBlocks;
+    private long decayTickBudgetNanos;
+    private boolean decayPersistent;
+    private int decaySaveIntervalSeconds;
+    private boolean speedBoostEnabled;
+    private double speedBoostAmount;
+    private Set<Material> speedBoostSurfaces;
+    private boolean toggleWriteBehind;
+    private long toggleSaveDelayMillis;
+    private String toggleStorage;
+    private boolean metricsEnabled;
+    private boolean adaptiveFrequencyEnabled;
+    private int adaptiveMinFrequency;
+    private int adaptiveMaxFrequency;
+    private int adaptiveMinPlayers;
+    private int adaptiveMaxPlayers;
+    private double adaptiveTargetMspt;
+    private double adaptivePauseMspt;
+    private double adaptiveRecoverMspt;
+    private boolean staggeredEnabled;
+    private int staggeredMinPlayers;
+    private int staggeredMaxPlayersPerTick;
 
     // Modifiers settings
     private Map<String, Integer> chanceModifiers;
     private Map<String, Integer> additiveModifiers;
+    private Map<String, Integer> biomeModifiers;
     private Map<String, Map<Material, Material>> blockModificationsMappings;
+    private boolean alwaysPhysics;
+    private Map<Material, Material> physicsTransitions;
 
     // Integrations settings
     private Map<String, Map<String, Object>> integrationMappings;
+    private int coreProtectQueueCapacity;
+    private int coreProtectBatchSize;
+    private CoreProtectLogQueue.BackPressure coreProtectBackPressure;
+
+    // Compiled snapshot used by the path attempt
+    private PathRules pathRules;
+    private Map<String, PathRules> worldPathRules;
+    private Set<Material> transitionSources;
 
     /**
      * Constructs the
@@ -43,39 +95,115 @@ public class Config {
         loadGeneralValues();
         loadModifiers();
         loadIntegrationSettings();
+        compilePathRules();
     }
 
     private void loadGeneralValues() {
-        disabledWorlds = turnToWorlds();
+        disabledWorlds = new HashSet<>(fileConfig.getStringList("disabledWorlds"));
         creativeModeAllowed = fileConfig.getBoolean("enableInCreativeMode", true);
         movementCheckEnabled = fileConfig.getBoolean("movementCheckEnabled", false);
         attemptFrequency = fileConfig.getInt("attemptFrequency");
+        mutationTickBudgetNanos = positiveLong("blockChangeTickBudgetNanos", 2_000_000L);
+        mutationMaxPending = (int) positiveLong("blockChangeMaxPending", 50_000L);
+        protectionCacheTtlMillis = fileConfig.getLong("protectionCache.ttlMillis", 30_000L);
+        protectionCacheMaxEntries = fileConfig.getInt("protectionCache.maxEntries", 20_000);
+        chunkSummariesEnabled = fileConfig.getBoolean("chunkSummaries.enabled", true);
+        chunkSummaryRescanSeconds = fileConfig.getInt("chunkSummaries.rescanSeconds", 300);
+        chunkSummaryMaxEntries = fileConfig.getInt("chunkSummaries.maxEntries", 20000);
+        wearEnabled = fileConfig.getBoolean("wearMode.enabled", false);
+        wearThreshold = loadWearThreshold();
+        wearColdAfterMinutes = fileConfig.getInt("wearMode.coldAfterMinutes", 120);
+        wearMaxTrackedBlocks = fileConfig.getInt("wearMode.maxTrackedBlocks", 5_000_000);
+        wearPersistent = fileConfig.getBoolean("wearMode.persist", true);
+        wearSaveIntervalSeconds = Math.max(1, fileConfig.getInt("wearMode.saveIntervalSeconds", 30));
+        decayEnabled = fileConfig.getBoolean("pathDecay.enabled", false);
+        decayIdleMinutes = fileConfig.getInt("pathDecay.idleMinutes", 1440);
+        decayIdleMinutesByMaterial = loadDecayIdleMinutes();
+        decayMaxTrackedBlocks = fileConfig.getInt("pathDecay.maxTrackedBlocks", 1_000_000);
+        decayTickBudgetNanos = positiveLong("pathDecay.tickBudgetNanos", 1_000_000L);
+        decayPersistent = fileConfig.getBoolean("pathDecay.persist", true);
+        decaySaveIntervalSeconds = Math.max(1, fileConfig.getInt("pathDecay.saveIntervalSeconds", 300));
+        speedBoostEnabled = fileConfig.getBoolean("pathSpeedBoost.enabled", false);
+        speedBoostAmount = fileConfig.getDouble("pathSpeedBoost.amount", 0.15);
+        speedBoostSurfaces = loadSpeedBoostSurfaces();
+        toggleWriteBehind = fileConfig.getBoolean("toggleData.writeBehind", true);
+        toggleSaveDelayMillis = Math.max(0L, fileConfig.getLong("toggleData.saveDelayMillis", 2_000L));
+        toggleStorage = fileConfig.getString("toggleData.storage", "YAML");
+        metricsEnabled = fileConfig.getBoolean("metricsEnabled", true);
+        adaptiveFrequencyEnabled = fileConfig.getBoolean("adaptiveFrequency.enabled", false);
+        adaptiveMinFrequency = fileConfig.getInt("adaptiveFrequency.minFrequency", 2);
+        adaptiveMaxFrequency = fileConfig.getInt("adaptiveFrequency.maxFrequency", 40);
+        adaptiveMinPlayers = fileConfig.getInt("adaptiveFrequency.minPlayersPerCycle", 10);
+        adaptiveMaxPlayers = fileConfig.getInt("adaptiveFrequency.maxPlayersPerCycle", 200);
+        adaptiveTargetMspt = fileConfig.getDouble("adaptiveFrequency.targetMspt", 40.0);
+        adaptivePauseMspt = fileConfig.getDouble("adaptiveFrequency.pauseMspt", 48.0);
+        adaptiveRecoverMspt = fileConfig.getDouble("adaptiveFrequency.recoverMspt", 30.0);
+        staggeredEnabled = fileConfig.getBoolean("staggeredScheduling.enabled", true);
+        staggeredMinPlayers = fileConfig.getInt("staggeredScheduling.minPlayers", 50);
+        staggeredMaxPlayersPerTick = fileConfig.getInt("staggeredScheduling.maxPlayersPerTick", 50);
     }
 
-    private List<World> turnToWorlds() {
-        final List<World> worlds = new ArrayList<>();
-        final List<String> worldNames = fileConfig.getStringList("disabledWorlds");
+    // A budget or limit of 0 would mean nothing is ever done, so those fall back to the default
+    private long positiveLong(final String path, final long defaultValue) {
+        final long value = fileConfig.getLong(path, defaultValue);
 
-        for (final String worldName : worldNames) {
-            final World world = Bukkit.getWorld(worldName);
+        if (value <= 0L) {
+            logger.warning(path + " must be above 0, using " + defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
 
-            if (world != null) {
-                worlds.add(world);
-            } else {
-                logger.warning(String.format("The world %s is null", worldName));
+    // Wear never counts past MAX_THRESHOLD, a higher threshold would never be reached
+    private int loadWearThreshold() {
+        final int threshold = fileConfig.getInt("wearMode.threshold", 300);
+        final int clamped = Math.max(1, Math.min(WearTracker.MAX_THRESHOLD, threshold));
+
+        if (clamped != threshold) {
+            logger.warning("wearMode.threshold must be between 1 and " + WearTracker.MAX_THRESHOLD + ", using " + clamped);
+        }
+        return clamped;
+    }
+
+    private Map<Material, Integer> loadDecayIdleMinutes() {
+        final Map<Material, Integer> idleMinutes = new EnumMap<>(Material.class);
+        final ConfigurationSection section = fileConfig.getConfigurationSection("pathDecay.idleMinutesPerBlock");
+
+        if (section != null) {
+            for (final String key : section.getKeys(false)) {
+                try {
+                    idleMinutes.put(Material.valueOf(key.toUpperCase()), section.getInt(key));
+                } catch (final IllegalArgumentException e) {
+                    logger.warning("Invalid block type in pathDecay.idleMinutesPerBlock: " + key);
+                }
             }
         }
+        return idleMinutes;
+    }
 
-        return worlds;
+    private Set<Material> loadSpeedBoostSurfaces() {
+        final Set<Material> surfaces = EnumSet.noneOf(Material.class);
+
+        for (final String name : fileConfig.getStringList("pathSpeedBoost.surfaces")) {
+            final Material material = Material.matchMaterial(name);
+
+            if (material != null && material.isBlock()) {
+                surfaces.add(material);
+            } else {
+                logger.warning("Invalid block type in pathSpeedBoost.surfaces: " + name);
+            }
+        }
+        return surfaces;
     }
 
     private void loadModifiers() {
         loadChanceModifiers();
         loadAdditiveModifiers();
+        biomeModifiers = loadBiomeModifiers(fileConfig.getConfigurationSection("biomeModifiers"), "biomeModifiers");
 
         blockModificationsMappings = Map.of(
-                "blockModifications.blockAtFeetModifications", new EnumMap<>(Material.class),
-                "blockModifications.blockBelowModifications", new EnumMap<>(Material.class)
+                BlockLayer.AT_FEET.getConfigPath(), new EnumMap<>(Material.class),
+                BlockLayer.BELOW.getConfigPath(), new EnumMap<>(Material.class)
         );
 
         for (final Map.Entry<String, Map<Material, Material>> blockModificationsEntry : blockModificationsMappings.entrySet()) {
@@ -83,6 +211,12 @@ public class Config {
             final Map<Material, Material> map = blockModificationsEntry.getValue();
             loadBlockModifications(path, map);
         }
+
+        alwaysPhysics = "ALWAYS".equalsIgnoreCase(fileConfig.getString("blockPhysics.mode", "NEEDED"));
+        physicsTransitions = new EnumMap<>(Material.class);
+        if (!fileConfig.getStringList("blockPhysics.physicsTransitions").isEmpty()) {
+            loadBlockModifications("blockPhysics.physicsTransitions", physicsTransitions);
+        }
     }
 
     private void loadChanceModifiers() {
@@ -111,8 +245,29 @@ public class Config {
         }
     }
 
+    private Map<String, Integer> loadBiomeModifiers(final ConfigurationSection section, final String path) {
+        final Map<String, Integer> modifiers = new HashMap<>();
+
+        if (section != null) {
+            for (final String key : section.getKeys(false)) {
+                try {
+                    modifiers.put(Biome.valueOf(key.toUpperCase()).name(), section.getInt(key));
+                } catch (final IllegalArgumentException e) {
+                    logger.warning("Invalid biome in " + path + ": " + key);
+                }
+            }
+        }
+        return modifiers;
+    }
+
     private void loadBlockModifications(final String path, final Map<Material, Material> blockModificationMap) {
-        final List<String> modifications = fileConfig.getStringList(path);
+        loadBlockModifications(fileConfig, path, blockModificationMap);
+    }
+
+    private void loadBlockModifications(final ConfigurationSection section, final String relativePath,
+                                        final Map<Material, Material> blockModificationMap) {
+        final List<String> modifications = section.getStringList(relativePath);
+        final String path = section == fileConfig ? relativePath : section.getCurrentPath() + "." + relativePath;
 
         if (!modifications.isEmpty()) {
             for (final String modification : modifications) {
@@ -149,6 +304,17 @@ public class Config {
             final Map<String, Object> map = integrationSettingEntry.getValue();
             loadIntegrationSettings(path, map);
         }
+
+        coreProtectQueueCapacity = fileConfig.getInt("coreProtectIntegrations.logQueueCapacity", 50_000);
+        coreProtectBatchSize = fileConfig.getInt("coreProtectIntegrations.logBatchSize", 500);
+        final String backPressure = fileConfig.getString("coreProtectIntegrations.logBackPressure", "COALESCE");
+
+        try {
+            coreProtectBackPressure = CoreProtectLogQueue.BackPressure.valueOf(backPressure.toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            logger.warning("Invalid coreProtectIntegrations.logBackPressure: " + backPressure);
+            coreProtectBackPressure = CoreProtectLogQueue.BackPressure.COALESCE;
+        }
     }
 
     private void loadIntegrationSettings(final String path, final Map<String, Object> settingsMap) {
@@ -163,11 +329,96 @@ public class Config {
         }
     }
 
+    private void compilePathRules() {
+        transitionSources = EnumSet.noneOf(Material.class);
+        pathRules = compilePathRules(null, true, 0);
+        worldPathRules = new HashMap<>();
+
+        for (final String worldName : disabledWorlds) {
+            worldPathRules.put(worldName, compilePathRules(null, false, 0));
+        }
+
+        final ConfigurationSection profiles = fileConfig.getConfigurationSection("worldProfiles");
+        if (profiles == null) {
+            return;
+        }
+        for (final String worldName : profiles.getKeys(false)) {
+            final ConfigurationSection profile = profiles.getConfigurationSection(worldName);
+
+            if (profile == null) {
+                logger.warning("Invalid world profile: " + worldName);
+                continue;
+            }
+            worldPathRules.put(worldName, compilePathRules(profile,
+                    profile.getBoolean("enabled", !disabledWorlds.contains(worldName)),
+                    profile.getInt("attemptFrequency", 0)));
+        }
+    }
+
+    // A profile only overrides what it sets, everything else comes from the global settings
+    private PathRules compilePathRules(final ConfigurationSection profile, final boolean enabled, final int frequency) {
+        final Map<BlockLayer, Map<Material, Material>> transitions = new EnumMap<>(BlockLayer.class);
+
+        for (final BlockLayer layer : BlockLayer.values()) {
+            if (profile != null && profile.isList(layer.getConfigPath())) {
+                final Map<Material, Material> layerTransitions = new EnumMap<>(Material.class);
+                loadBlockModifications(profile, layer.getConfigPath(), layerTransitions);
+                transitions.put(layer, layerTransitions);
+                transitionSources.addAll(layerTransitions.keySet());
+            } else {
+                transitions.put(layer, blockModificationsMappings.get(layer.getConfigPath()));
+                transitionSources.addAll(blockModificationsMappings.get(layer.getConfigPath()).keySet());
+            }
+        }
+
+        final Object logToCoreProtect = integrationMappings.get("coreProtectIntegrations").get("logPathsToCoreProtect");
+
+        return new PathRules(
+                transitions,
+                withOverrides(chanceModifiers, profile, "chanceModifiers"),
+                withOverrides(additiveModifiers, profile, "additiveModifiers"),
+                withBiomeOverrides(profile),
+                enabled,
+                frequency,
+                creativeModeAllowed,
+                Boolean.TRUE.equals(logToCoreProtect),
+                wearEnabled,
+                wearThreshold,
+                alwaysPhysics,
+                physicsTransitions
+        );
+    }
+
+    private Map<String, Integer> withBiomeOverrides(final ConfigurationSection profile) {
+        final ConfigurationSection section = profile == null ? null : profile.getConfigurationSection("biomeModifiers");
+        if (section == null) {
+            return biomeModifiers;
+        }
+
+        final Map<String, Integer> merged = new HashMap<>(biomeModifiers);
+        merged.putAll(loadBiomeModifiers(section, profile.getCurrentPath() + ".biomeModifiers"));
+        return merged;
+    }
+
+    private static Map<String, Integer> withOverrides(final Map<String, Integer> modifiers,
+                                                      final ConfigurationSection profile, final String path) {
+        final ConfigurationSection section = profile == null ? null : profile.getConfigurationSection(path);
+        if (section == null) {
+            return modifiers;
+        }
+
+        final Map<String, Integer> merged = new HashMap<>(modifiers);
+        for (final String key : section.getKeys(false)) {
+            merged.put(key, section.getInt(key));
+        }
+        return merged;
+    }
+
     /**
      * GETTERS SECTION
      */
 
-    public List<World> getDisabledWorlds() {
+    public Set<String> getDisabledWorlds() {
         return disabledWorlds;
     }
 
@@ -183,6 +434,172 @@ public class Config {
         return attemptFrequency;
     }
 
+    public long getMutationTickBudgetNanos() {
+        return mutationTickBudgetNanos;
+    }
+
+    public int getMutationMaxPending() {
+        return mutationMaxPending;
+    }
+
+    public long getProtectionCacheTtlMillis() {
+        return protectionCacheTtlMillis;
+    }
+
+    public int getProtectionCacheMaxEntries() {
+        return protectionCacheMaxEntries;
+    }
+
+    public boolean isChunkSummariesEnabled() {
+        return chunkSummariesEnabled;
+    }
+
+    public int getChunkSummaryRescanSeconds() {
+        return chunkSummaryRescanSeconds;
+    }
+
+    public int getChunkSummaryMaxEntries() {
+        return chunkSummaryMaxEntries;
+    }
+
+    /**
+     * Returns every material that has a transition, in any layer of any world.
+     */
+    public Set<Material> getTransitionSources() {
+        return transitionSources;
+    }
+
+    public boolean isWearEnabled() {
+        return wearEnabled;
+    }
+
+    public int getWearColdAfterMinutes() {
+        return wearColdAfterMinutes;
+    }
+
+    public int getWearMaxTrackedBlocks() {
+        return wearMaxTrackedBlocks;
+    }
+
+    public boolean isWearPersistent() {
+        return wearPersistent;
+    }
+
+    public int getWearSaveIntervalSeconds() {
+        return wearSaveIntervalSeconds;
+    }
+
+    public boolean isDecayEnabled() {
+        return decayEnabled;
+    }
+
+    public int getDecayIdleMinutes() {
+        return decayIdleMinutes;
+    }
+
+    public Map<Material, Integer> getDecayIdleMinutesByMaterial() {
+        return decayIdleMinutesByMaterial;
+    }
+
+    public int getDecayMaxTrackedBlocks() {
+        return decayMaxTrackedBlocks;
+    }
+
+    public long getDecayTickBudgetNanos() {
+        return decayTickBudgetNanos;
+    }
+
+    public boolean isDecayPersistent() {
+        return decayPersistent;
+    }
+
+    public int getDecaySaveIntervalSeconds() {
+        return decaySaveIntervalSeconds;
+    }
+
+    public boolean isSpeedBoostEnabled() {
+        return speedBoostEnabled;
+    }
+
+    public double getSpeedBoostAmount() {
+        return speedBoostAmount;
+    }
+
+    public Set<Material> getSpeedBoostSurfaces() {
+        return speedBoostSurfaces;
+    }
+
+    /**
+     * Returns whether the path speed boost settings are the same as in the other config.
+     *
+     * @param other The other config
+     */
+    public boolean hasSameSpeedBoostSettings(final Config other) {
+        return speedBoostEnabled == other.speedBoostEnabled
+                && speedBoostAmount == other.speedBoostAmount
+                && speedBoostSurfaces.equals(other.speedBoostSurfaces);
+    }
+
+    public boolean isToggleWriteBehind() {
+        return toggleWriteBehind;
+    }
+
+    public long getToggleSaveDelayMillis() {
+        return toggleSaveDelayMillis;
+    }
+
+    public String getToggleStorage() {
+        return toggleStorage;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public boolean isAdaptiveFrequencyEnabled() {
+        return adaptiveFrequencyEnabled;
+    }
+
+    public int getAdaptiveMinFrequency() {
+        return adaptiveMinFrequency;
+    }
+
+    public int getAdaptiveMaxFrequency() {
+        return adaptiveMaxFrequency;
+    }
+
+    public int getAdaptiveMinPlayers() {
+        return adaptiveMinPlayers;
+    }
+
+    public int getAdaptiveMaxPlayers() {
+        return adaptiveMaxPlayers;
+    }
+
+    public double getAdaptiveTargetMspt() {
+        return adaptiveTargetMspt;
+    }
+
+    public double getAdaptivePauseMspt() {
+        return adaptivePauseMspt;
+    }
+
+    public double getAdaptiveRecoverMspt() {
+        return adaptiveRecoverMspt;
+    }
+
+    public boolean isStaggeredEnabled() {
+        return staggeredEnabled;
+    }
+
+    public int getStaggeredMinPlayers() {
+        return staggeredMinPlayers;
+    }
+
+    public int getStaggeredMaxPlayersPerTick() {
+        return staggeredMaxPlayersPerTick;
+    }
+
     public Map<String, Integer> getChanceModifiers() {
         return chanceModifiers;
     }
@@ -191,6 +608,10 @@ public class Config {
         return additiveModifiers;
     }
 
+    public Map<String, Integer> getBiomeModifiers() {
+        return biomeModifiers;
+    }
+
     public Map<String, Map<Material, Material>> getBlockModificationsMappings() {
         return blockModificationsMappings;
     }
@@ -198,4 +619,130 @@ public class Config {
     public Map<String, Map<String, Object>> getIntegrationMappings() {
         return integrationMappings;
     }
+
+    private boolean integrationFlag(final String path, final String key, final boolean def) {
+        final Object value = integrationMappings.get(path).get(key);
+        return value instanceof Boolean ? (Boolean) value : def;
+    }
+
+    private String integrationString(final String path, final String key, final String def) {
+        final Object value = integrationMappings.get(path).get(key);
+        return value != null ? value.toString() : def;
+    }
+
+    public boolean isTownyPathsInWilderness() {
+        return integrationFlag("townyModifiers", "pathsInWilderness", true);
+    }
+
+    public boolean isTownyPathsOnlyWherePlayerCanBreak() {
+        return integrationFlag("townyModifiers", "pathsOnlyWherePlayerCanBreak", true);
+    }
+
+    public boolean isTownyNoPathsInAnyTown() {
+        return integrationFlag("townyModifiers", "noPathsInAnyTown", false);
+    }
+
+    public boolean isGriefPreventionPathsInWilderness() {
+        return integrationFlag("griefPreventionIntegration", "pathsInWilderness", true);
+    }
+
+    public boolean isGriefPreventionPathsOnlyWherePlayerCanBreak() {
+        return integrationFlag("griefPreventionIntegration", "pathsOnlyWherePlayerCanBreak", true);
+    }
+
+    public boolean isGriefPreventionNoPathsInAnyClaim() {
+        return integrationFlag("griefPreventionIntegration", "noPathsInAnyClaim", false);
+    }
+
+    public boolean isLandsDisplayFlag() {
+        return integrationFlag("landsIntegrations", "displayFlag", true);
+    }
+
+    public String getLandsFlagDisplayName() {
+        return integrationString("landsIntegrations", "flagDisplayName", "Desire Paths");
+    }
+
+    public String getLandsFlagDisplayDescription() {
+        return integrationString("landsIntegrations", "flagDisplayDescription", "Allow this role to create paths?");
+    }
+
+    public String getLandsFlagDisplayMaterial() {
+        return integrationString("landsIntegrations", "flagDisplayMaterial", "DIRT_PATH");
+    }
+
+    public boolean isLandsDefaultFlagState() {
+        return integrationFlag("landsIntegrations", "defaultFlagState", true);
+    }
+
+    /**
+     * Returns whether the settings of the attempt scheduler are the same as in the other config.
+     */
+    public boolean hasSameSchedulerSettings(final Config other) {
+        return attemptFrequency == other.attemptFrequency
+                && adaptiveFrequencyEnabled == other.adaptiveFrequencyEnabled
+                && adaptiveMinFrequency == other.adaptiveMinFrequency
+                && adaptiveMaxFrequency == other.adaptiveMaxFrequency
+                && adaptiveMinPlayers == other.adaptiveMinPlayers
+                && adaptiveMaxPlayers == other.adaptiveMaxPlayers
+                && adaptiveTargetMspt == other.adaptiveTargetMspt
+                && adaptivePauseMspt == other.adaptivePauseMspt
+                && adaptiveRecoverMspt == other.adaptiveRecoverMspt
+                && staggeredEnabled == other.staggeredEnabled
+                && staggeredMinPlayers == other.staggeredMinPlayers
+                && staggeredMaxPlayersPerTick == other.staggeredMaxPlayersPerTick;
+    }
+
+    /**
+     * Returns whether the settings of an integration section are the same as in the other config.
+     *
+     * @param other The other config
+     * @param path  The section, e.g. townyModifiers
+     */
+    public boolean hasSameIntegrationSettings(final Config other, final String path) {
+        return integrationMappings.get(path).equals(other.integrationMappings.get(path));
+    }
+
+    public int getCoreProtectQueueCapacity() {
+        return coreProtectQueueCapacity;
+    }
+
+    public int getCoreProtectBatchSize() {
+        return coreProtectBatchSize;
+    }
+
+    public CoreProtectLogQueue.BackPressure getCoreProtectBackPressure() {
+        return coreProtectBackPressure;
+    }
+
+    /**
+     * Returns the rules of worlds without a profile.
+     */
+    public PathRules getPathRules() {
+        return pathRules;
+    }
+
+    /**
+     * Returns the rules of a world, from its profile if it has one.
+     *
+     * @param worldName The name of the world
+     * @return The rules
+     */
+    public PathRules getPathRules(final String worldName) {
+        return worldPathRules.getOrDefault(worldName, pathRules);
+    }
+
+    /**
+     * Returns whether any world has biome modifiers, so biomes only get cached when they are used.
+     */
+    public boolean isBiomeModifiersUsed() {
+        if (pathRules.hasBiomeModifiers()) {
+            return true;
+        }
+        for (final PathRules rules : worldPathRules.values()) {
+            if (rules.hasBiomeModifiers()) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -4,8 +4,8 @@ import me.kermx.desirepaths.DesirePaths;
 import net.coreprotect.CoreProtect;
 import net.coreprotect.CoreProtectAPI;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
@@ -13,6 +13,7 @@ import org.bukkit.plugin.Plugin;
 public class CoreProtectIntegration {
     private final DesirePaths plugin;
     private CoreProtectAPI coreProtectAPI;
+    private CoreProtectLogQueue logQueue;
 
     public CoreProtectIntegration(DesirePaths plugin){
         this.plugin = plugin;
@@ -38,14 +39,74 @@ public class CoreProtectIntegration {
         return this.coreProtectAPI;
     }
 
-    public void logPathChangesToCoreProtectRemoval(Player player, Location location, Material material, BlockData blockData){
-        if (coreProtectAPI != null){
-            coreProtectAPI.logRemoval(player.getName(), location, material, blockData);
+    /**
+     * Starts the background logging, path changes are queued from then on.
+     *
+     * @param capacity     The maximum number of queued changes
+     * @param batchSize    The maximum number of changes logged per batch
+     * @param backPressure What to do with a change while the queue is full
+     */
+    public void startLogging(int capacity, int batchSize, CoreProtectLogQueue.BackPressure backPressure){
+        if (coreProtectAPI == null || logQueue != null){
+            return;
         }
+        logQueue = new CoreProtectLogQueue(this::log, plugin.getLogger(), capacity, batchSize, backPressure);
+        logQueue.start();
     }
-    public void logPathChangesToCoreProtectPlacement(Player player, Location location, Material material, BlockData blockData){
-        if (coreProtectAPI != null){
-            coreProtectAPI.logPlacement(player.getName(), location, material, blockData);
+
+    /**
+     * Stops the background logging, after logging everything still queued.
+     */
+    public void stopLogging(){
+        if (logQueue == null){
+            return;
+        }
+        logQueue.stop();
+        if (logQueue.getDropped() > 0){
+            plugin.getLogger().warning(String.format("%d path changes were not logged to CoreProtect because the log queue was full",
+                    logQueue.getDropped()));
         }
+        logQueue = null;
+    }
+
+    /**
+     * Queues a path change for logging. Called on the thread owning the block, right after the change.
+     *
+     * @param player      The player that caused the change
+     * @param block       The changed block
+     * @param removedType The material before the change
+     * @param removedData The block data before the change
+     */
+    public void logPathChange(Player player, Block block, Material removedType, BlockData removedData, Material placedType){
+        logPathChange(player.getName(), block, removedType, removedData, placedType);
+    }
+
+    /**
+     * Queues a path change made without a player, e.g. a path growing back.
+     * Called on the thread owning the block, right after the change.
+     *
+     * @param user        The name the change is logged under, CoreProtect expects a leading # for non-players
+     * @param block       The changed block
+     * @param removedType The material before the change
+     * @param removedData The block data before the change
+     */
+    public void logPathChange(String user, Block block, Material removedType, BlockData removedData, Material placedType){
+        if (logQueue == null){
+            return;
+        }
+        // The placed block has the default data of its type, created on the worker instead of read back here
+        logQueue.offer(new CoreProtectLogQueue.LogRecord(user, block.getWorld(), block.getX(), block.getY(), block.getZ(),
+                removedType, removedData, placedType, null));
+    }
+
+    public CoreProtectLogQueue getLogQueue(){
+        return logQueue;
+    }
+
+    // Worker thread, CoreProtect queues the changes for its own consumer
+    private void log(CoreProtectLogQueue.LogRecord record){
+        coreProtectAPI.logRemoval(record.getUser(), record.getLocation(), record.getRemovedType(), record.getRemovedData());
+        BlockData placedData = record.getPlacedData() != null ? record.getPlacedData() : record.getPlacedType().createBlockData();
+        coreProtectAPI.logPlacement(record.getUser(), record.getLocation(), record.getPlacedType(), placedData);
     }
 }
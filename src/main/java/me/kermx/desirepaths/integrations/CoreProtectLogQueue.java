@@ -0,0 +1,342 @@
+package me.kermx.desirepaths.integrations;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A bounded queue of path changes waiting to be logged to CoreProtect,
+ * emptied in batches by a single background worker so the main thread
+ * only pays for queueing a record.
+ * <p>
+ * When the queue is full the {@link BackPressure} decides what happens
+ * to a new record. On stop the worker finishes and whatever is left is
+ * logged before returning, so nothing queued is lost on shutdown.
+ */
+public class CoreProtectLogQueue {
+    private static final long IDLE_WAIT_MILLIS = 250L;
+    private static final long STOP_WAIT_MILLIS = 5_000L;
+
+    private final Consumer<LogRecord> sink;
+    private final Logger logger;
+    private final int capacity;
+    private final int batchSize;
+    private final BackPressure backPressure;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Slot> queue = new ArrayDeque<>();
+    private final Map<BlockKey, Slot> queuedBlocks = new HashMap<>();
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * Constructs the queue.
+     *
+     * @param sink         Logs a single record, called on the worker
+     * @param logger       The logger
+     * @param capacity     The maximum number of queued records
+     * @param batchSize    The maximum number of records taken per batch
+     * @param backPressure What to do with a record while the queue is full
+     */
+    public CoreProtectLogQueue(final Consumer<LogRecord> sink, final Logger logger, final int capacity,
+                               final int batchSize, final BackPressure backPressure) {
+        this.sink = sink;
+        this.logger = logger;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.backPressure = backPressure;
+    }
+
+    /**
+     * Starts the worker.
+     */
+    public void start() {
+        running = true;
+        worker = new Thread(this::work, "DesirePaths-CoreProtect");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops the worker and logs everything still queued on the calling thread.
+     */
+    public void stop() {
+        running = false;
+
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (worker != null) {
+            try {
+                worker.join(STOP_WAIT_MILLIS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+
+        List<LogRecord> batch;
+        while (!(batch = take(Integer.MAX_VALUE)).isEmpty()) {
+            log(batch);
+        }
+    }
+
+    /**
+     * Queues a record. Safe to call from any thread.
+     *
+     * @param record The record
+     * @return Was the record queued or merged, false if it was dropped
+     */
+    public boolean offer(final LogRecord record) {
+        lock.lock();
+        try {
+            // Only while full: below capacity every change is logged on its own, so the trail stays complete
+            if (backPressure == BackPressure.COALESCE && queue.size() >= capacity) {
+                final Slot queued = queuedBlocks.get(record.key);
+
+                // The block changed again before it was logged, log both as one change
+                if (queued != null) {
+                    queued.record = queued.record.followedBy(record);
+                    coalesced.incrementAndGet();
+                    return true;
+                }
+            }
+
+            while (queue.size() >= capacity) {
+                if (backPressure != BackPressure.BLOCK || !running) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                notFull.awaitUninterruptibly();
+            }
+
+            final Slot slot = new Slot(record);
+            queue.add(slot);
+            if (backPressure == BackPressure.COALESCE) {
+                // The newest change of the block, the one a later change is merged into
+                queuedBlocks.put(record.key, slot);
+            }
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of queued records.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    private void work() {
+        while (running) {
+            lock.lock();
+            try {
+                if (queue.isEmpty() && running) {
+                    notEmpty.await(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            } catch (final InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            log(take(batchSize));
+        }
+    }
+
+    private List<LogRecord> take(final int max) {
+        lock.lock();
+        try {
+            final List<LogRecord> batch = new ArrayList<>(Math.min(max, queue.size()));
+
+            while (batch.size() < max && !queue.isEmpty()) {
+                final Slot slot = queue.poll();
+                queuedBlocks.remove(slot.record.key, slot);
+                batch.add(slot.record);
+            }
+            if (!batch.isEmpty()) {
+                notFull.signalAll();
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void log(final List<LogRecord> batch) {
+        for (final LogRecord record : batch) {
+            try {
+                sink.accept(record);
+            } catch (final RuntimeException e) {
+                logger.log(Level.WARNING, "Could not log a path change to CoreProtect", e);
+            }
+        }
+    }
+
+    /**
+     * What happens to a new record while the queue is full.
+     */
+    public enum BackPressure {
+        /**
+         * The record is dropped.
+         */
+        DROP,
+        /**
+         * While full, a record for a block that is already queued is merged into its newest
+         * record and other records are dropped. Below capacity every record is queued on its own.
+         */
+        COALESCE,
+        /**
+         * The caller waits until the worker made room. Complete, but can stall the server.
+         */
+        BLOCK
+    }
+
+    /**
+     * A single path change: the block was removed and the new one placed.
+     */
+    public static final class LogRecord {
+        private final String user;
+        private final World world;
+        private final BlockKey key;
+        private final Material removedType;
+        private final BlockData removedData;
+        private final Material placedType;
+        private final BlockData placedData;
+
+        /**
+         * Constructs the record.
+         *
+         * @param user        The name of the player
+         * @param world       The world of the block
+         * @param x           Block x
+         * @param y           Block y
+         * @param z           Block z
+         * @param removedType The material before the change
+         * @param removedData The block data before the change
+         * @param placedType  The material after the change
+         * @param placedData  The block data after the change, null for the default data of placedType
+         */
+        public LogRecord(final String user, final World world, final int x, final int y, final int z,
+                         final Material removedType, final BlockData removedData,
+                         final Material placedType, final BlockData placedData) {
+            this.user = user;
+            this.world = world;
+            this.key = new BlockKey(world.getUID(), x, y, z);
+            this.removedType = removedType;
+            this.removedData = removedData;
+            this.placedType = placedType;
+            this.placedData = placedData;
+        }
+
+        private LogRecord followedBy(final LogRecord next) {
+            return new LogRecord(next.user, world, key.x, key.y, key.z, removedType, removedData, next.placedType, next.placedData);
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public Location getLocation() {
+            return new Location(world, key.x, key.y, key.z);
+        }
+
+        public Material getRemovedType() {
+            return removedType;
+        }
+
+        public BlockData getRemovedData() {
+            return removedData;
+        }
+
+        public Material getPlacedType() {
+            return placedType;
+        }
+
+        public BlockData getPlacedData() {
+            return placedData;
+        }
+    }
+
+    private static final class Slot {
+        private LogRecord record;
+
+        private Slot(final LogRecord record) {
+            this.record = record;
+        }
+    }
+
+    private static final class BlockKey {
+        private final UUID worldId;
+        private final int x;
+        private final int y;
+        private final int z;
+
+        private BlockKey(final UUID worldId, final int x, final int y, final int z) {
+            this.worldId = worldId;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BlockKey)) {
+                return false;
+            }
+            final BlockKey other = (BlockKey) o;
+            return x == other.x && y == other.y && z == other.z && worldId.equals(other.worldId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(worldId, x, y, z);
+        }
+    }
+}
@@ -5,12 +5,19 @@ import me.ryanhamshire.GriefPrevention.Claim;
 import me.ryanhamshire.GriefPrevention.ClaimPermission;
 import me.ryanhamshire.GriefPrevention.GriefPrevention;
 import me.ryanhamshire.GriefPrevention.PlayerData;
+import me.ryanhamshire.GriefPrevention.events.ClaimCreatedEvent;
+import me.ryanhamshire.GriefPrevention.events.ClaimDeletedEvent;
+import me.ryanhamshire.GriefPrevention.events.ClaimModifiedEvent;
+import me.ryanhamshire.GriefPrevention.events.TrustChangedEvent;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 
 import java.util.function.Supplier;
 
-public class GriefPreventionIntegration {
+public class GriefPreventionIntegration implements Listener {
     private GriefPrevention griefPrevention;
     private DesirePaths plugin;
 
@@ -31,14 +38,37 @@ public class GriefPreventionIntegration {
             if (playerData != null) {
                 playerData.lastClaim = claim;
             }
-            if (plugin.noPathsInAnyClaimGriefPrevention){
+            if (plugin.getFileConfig().isGriefPreventionNoPathsInAnyClaim()){
                 return false;
-            } else {
+            } else if (plugin.getFileConfig().isGriefPreventionPathsOnlyWherePlayerCanBreak()) {
                 Supplier<String> noAccessReason = claim.checkPermission(player, ClaimPermission.Build, null);
                 return noAccessReason == null;
+            } else {
+                return true;
             }
         } else {
-            return plugin.pathsInWildernessGriefPrevention;
+            return plugin.getFileConfig().isGriefPreventionPathsInWilderness();
         }
     }
+
+    // Claims or trust changed, cached decisions may be wrong now
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(ClaimCreatedEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.GRIEF_PREVENTION);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(ClaimDeletedEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.GRIEF_PREVENTION);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(ClaimModifiedEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.GRIEF_PREVENTION);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(TrustChangedEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.GRIEF_PREVENTION);
+    }
 }
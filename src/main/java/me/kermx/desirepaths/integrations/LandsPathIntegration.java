@@ -1,17 +1,24 @@
 package me.kermx.desirepaths.integrations;
 
 import me.angeschossen.lands.api.LandsIntegration;
+import me.angeschossen.lands.api.events.ChunkDeleteEvent;
+import me.angeschossen.lands.api.events.ChunkPostClaimEvent;
+import me.angeschossen.lands.api.events.LandDeleteEvent;
 import me.angeschossen.lands.api.flags.enums.FlagTarget;
 import me.angeschossen.lands.api.flags.enums.RoleFlagCategory;
 import me.angeschossen.lands.api.flags.type.RoleFlag;
 import me.angeschossen.lands.api.land.LandWorld;
 import me.kermx.desirepaths.DesirePaths;
+import me.kermx.desirepaths.files.Config;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 import org.bukkit.inventory.ItemStack;
 
-public class LandsPathIntegration {
+public class LandsPathIntegration implements Listener {
 
     private final DesirePaths plugin;
     private LandsIntegration landsIntegration;
@@ -23,9 +30,8 @@ public class LandsPathIntegration {
     }
 
 
-    public boolean checkFlag(Player player){
-        LandWorld world = landsIntegration.getWorld(player.getWorld());
-        Location location = player.getLocation();
+    public boolean checkFlag(Player player, Location location){
+        LandWorld world = landsIntegration.getWorld(location.getWorld());
         if (world != null){ //Lands is enabled
             return !world.hasRoleFlag(player.getUniqueId(), location, desirePathsFlag);
         } else {
@@ -36,8 +42,13 @@ public class LandsPathIntegration {
     public void registerFlags(){
         RoleFlag roleFlag = RoleFlag.of(landsIntegration, FlagTarget.PLAYER, RoleFlagCategory.ACTION, "DESIRE_PATHS");
 
-        roleFlag.setDisplayName(plugin.flagDisplayName).setIcon(new ItemStack(Material.matchMaterial(plugin.flagDisplayMaterial)))
-                .setDescription(plugin.flagDisplayDescription).setDisplay(plugin.displayFlag).setDefaultState(plugin.defaultFlagState);
+        Config config = plugin.getFileConfig();
+        Material icon = Material.matchMaterial(config.getLandsFlagDisplayMaterial());
+
+        // Lands only takes flags while loading, so these settings need a restart
+        roleFlag.setDisplayName(config.getLandsFlagDisplayName()).setIcon(new ItemStack(icon != null ? icon : Material.DIRT_PATH))
+                .setDescription(config.getLandsFlagDisplayDescription()).setDisplay(config.isLandsDisplayFlag())
+                .setDefaultState(config.isLandsDefaultFlagState());
 
         this.desirePathsFlag = roleFlag;
     }
@@ -45,4 +56,20 @@ public class LandsPathIntegration {
     public void loadLandsIntegration(){
         registerFlags();
     }
+
+    // Claims changed, cached decisions may be wrong now
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(ChunkPostClaimEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.LANDS);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(ChunkDeleteEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.LANDS);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(LandDeleteEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.LANDS);
+    }
 }
@@ -0,0 +1,197 @@
+package me.kermx.desirepaths.integrations;
+
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Remembers the answers of the protection integrations for a while.
+ * <p>
+ * Decisions are keyed by player, world and block (or chunk and material,
+ * depending on the source) and expire after the configured time. Each source keeps at
+ * most the configured number of entries, evicting the least recently used.
+ * The integrations invalidate their own source when a claim or town
+ * changes; changes without an event, like WorldGuard regions or Lands
+ * trust and roles, are only seen once the decision expired. On a region-threaded server several threads use it, so
+ * every source map is guarded by its own lock; the integration itself
+ * is always asked outside the lock.
+ */
+public class ProtectionCache {
+    private final Map<ProtectionSource, LinkedHashMap<Key, Decision>> decisions = new EnumMap<>(ProtectionSource.class);
+
+    private volatile long ttlNanos;
+    private volatile int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructs the cache.
+     *
+     * @param ttlMillis  How long a decision is trusted, 0 disables the cache
+     * @param maxEntries The maximum number of decisions per source
+     */
+    public ProtectionCache(final long ttlMillis, final int maxEntries) {
+        for (final ProtectionSource source : ProtectionSource.values()) {
+            decisions.put(source, new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Key, Decision> eldest) {
+                    return size() > ProtectionCache.this.maxEntries;
+                }
+            });
+        }
+        configure(ttlMillis, maxEntries);
+    }
+
+    /**
+     * Applies new settings. Cached decisions are only dropped if the settings changed.
+     *
+     * @param ttlMillis  How long a decision is trusted, 0 disables the cache
+     * @param maxEntries The maximum number of decisions per source
+     */
+    public void configure(final long ttlMillis, final int maxEntries) {
+        final long newTtlNanos = Math.max(0L, ttlMillis) * 1_000_000L;
+        final int newMaxEntries = Math.max(1, maxEntries);
+
+        if (newTtlNanos == ttlNanos && newMaxEntries == this.maxEntries) {
+            return;
+        }
+        this.ttlNanos = newTtlNanos;
+        this.maxEntries = newMaxEntries;
+        invalidateAll();
+    }
+
+    /**
+     * Returns the cached decision or asks the integration and caches the answer.
+     *
+     * @param source The integration
+     * @param player The player
+     * @param block  The block that would change
+     * @param check  Asks the integration, true if the change is allowed
+     * @return Is the change allowed
+     */
+    public boolean isAllowed(final ProtectionSource source, final Player player, final Block block, final BooleanSupplier check) {
+        if (ttlNanos == 0L) {
+            return check.getAsBoolean();
+        }
+
+        final long now = System.nanoTime();
+        final Key key = new Key(player.getUniqueId(), block.getWorld().getUID(),
+                source.isChunkGranular() ? chunkPosition(block) : blockPosition(block),
+                source.isMaterialDependent() ? block.getType().ordinal() : -1);
+        final LinkedHashMap<Key, Decision> sourceDecisions = decisions.get(source);
+        final Decision cached;
+
+        synchronized (sourceDecisions) {
+            cached = sourceDecisions.get(key);
+        }
+
+        if (cached != null && cached.expiresAt - now > 0) {
+            hits.increment();
+            return cached.allowed;
+        }
+
+        misses.increment();
+        final boolean allowed = check.getAsBoolean();
+
+        synchronized (sourceDecisions) {
+            sourceDecisions.put(key, new Decision(allowed, now + ttlNanos));
+        }
+        return allowed;
+    }
+
+    /**
+     * Drops every decision of the source, e.g. when a claim changed.
+     *
+     * @param source The integration
+     */
+    public void invalidate(final ProtectionSource source) {
+        final LinkedHashMap<Key, Decision> sourceDecisions = decisions.get(source);
+
+        synchronized (sourceDecisions) {
+            sourceDecisions.clear();
+        }
+    }
+
+    /**
+     * Drops every decision of every source.
+     */
+    public void invalidateAll() {
+        for (final ProtectionSource source : ProtectionSource.values()) {
+            invalidate(source);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the share of lookups answered from the cache, between 0 and 1.
+     */
+    public double getHitRatio() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private static long blockPosition(final Block block) {
+        return ((long) (block.getX() & 0x3FFFFFF) << 38) | ((long) (block.getZ() & 0x3FFFFFF) << 12) | (block.getY() & 0xFFF);
+    }
+
+    private static long chunkPosition(final Block block) {
+        return ((long) (block.getX() >> 4) << 32) | ((block.getZ() >> 4) & 0xFFFFFFFFL);
+    }
+
+    private static final class Key {
+        private final UUID playerId;
+        private final UUID worldId;
+        private final long position;
+        private final int material; // ordinal, -1 if the source does not depend on it
+
+        private Key(final UUID playerId, final UUID worldId, final long position, final int material) {
+            this.playerId = playerId;
+            this.worldId = worldId;
+            this.position = position;
+            this.material = material;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return position == other.position && material == other.material
+                    && playerId.equals(other.playerId) && worldId.equals(other.worldId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(playerId, worldId, position, material);
+        }
+    }
+
+    private static final class Decision {
+        private final boolean allowed;
+        private final long expiresAt;
+
+        private Decision(final boolean allowed, final long expiresAt) {
+            this.allowed = allowed;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package me.kermx.desirepaths.integrations;
+
+/**
+ * The protection plugins DesirePaths asks before changing a block,
+ * together with how coarse their answers are. Towny decides per town
+ * block, which is a chunk, so one answer covers the whole chunk. Its
+ * answer also depends on the material, through the switch and item use
+ * lists, so it is kept per material as well. Lands sub-areas do not
+ * follow chunk borders, so Lands is asked per block like the others.
+ */
+public enum ProtectionSource {
+    WORLDGUARD(false, false),
+    LANDS(false, false),
+    GRIEF_PREVENTION(false, false),
+    TOWNY(true, true);
+
+    private final boolean chunkGranular;
+    private final boolean materialDependent;
+
+    ProtectionSource(final boolean chunkGranular, final boolean materialDependent) {
+        this.chunkGranular = chunkGranular;
+        this.materialDependent = materialDependent;
+    }
+
+    /**
+     * Returns whether a decision holds for the whole chunk
+     * instead of the single block.
+     */
+    public boolean isChunkGranular() {
+        return chunkGranular;
+    }
+
+    /**
+     * Returns whether a decision only holds for blocks of the same material.
+     */
+    public boolean isMaterialDependent() {
+        return materialDependent;
+    }
+}
@@ -1,14 +1,24 @@
 package me.kermx.desirepaths.integrations;
 
 import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.event.DeleteTownEvent;
+import com.palmergames.bukkit.towny.event.NewTownEvent;
+import com.palmergames.bukkit.towny.event.TownAddResidentEvent;
+import com.palmergames.bukkit.towny.event.TownBlockSettingsChangedEvent;
+import com.palmergames.bukkit.towny.event.TownClaimEvent;
+import com.palmergames.bukkit.towny.event.TownRemoveResidentEvent;
+import com.palmergames.bukkit.towny.event.town.TownUnclaimEvent;
 import com.palmergames.bukkit.towny.object.TownyPermission;
 import com.palmergames.bukkit.towny.utils.PlayerCacheUtil;
 import me.kermx.desirepaths.DesirePaths;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 
-public class TownyIntegration {
+public class TownyIntegration implements Listener {
     private DesirePaths plugin;
 
     public TownyIntegration(DesirePaths plugin){
@@ -19,15 +29,15 @@ public class TownyIntegration {
         if (TownyAPI.getInstance().isTownyWorld(location.getWorld())){
 
             if (TownyAPI.getInstance().isWilderness(location)){
-                return plugin.pathsInWildernessTowny;
+                return plugin.getFileConfig().isTownyPathsInWilderness();
 
             } else {
 
-                if (plugin.noPathsInAnyTown){
+                if (plugin.getFileConfig().isTownyNoPathsInAnyTown()){
                     return false;
                 }
 
-                if (plugin.pathsOnlyWherePlayerCanBreakTowny) {
+                if (plugin.getFileConfig().isTownyPathsOnlyWherePlayerCanBreak()) {
                     Block block = location.getBlock();
                     return PlayerCacheUtil.getCachePermission(player, location, block.getType(),
                             TownyPermission.ActionType.DESTROY);
@@ -39,4 +49,40 @@ public class TownyIntegration {
             return true;
         }
     }
+
+    // Towns, claims or residents changed, cached decisions may be wrong now
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(NewTownEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.TOWNY);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(DeleteTownEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.TOWNY);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(TownClaimEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.TOWNY);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(TownUnclaimEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.TOWNY);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(TownBlockSettingsChangedEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.TOWNY);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(TownAddResidentEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.TOWNY);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(TownRemoveResidentEvent event){
+        plugin.getProtectionCache().invalidate(ProtectionSource.TOWNY);
+    }
 }
@@ -18,9 +18,9 @@ import org.bukkit.entity.Player;
 public class WorldGuardIntegration {
     public static StateFlag DESIREPATHS_PATHS;
 
-    public boolean checkFlag(Player player){
+    public boolean checkFlag(Player player, org.bukkit.Location blockLocation){
         LocalPlayer localPlayer = WorldGuardPlugin.inst().wrapPlayer(player);
-        Location location = BukkitAdapter.adapt(player.getLocation());
+        Location location = BukkitAdapter.adapt(blockLocation);
         RegionQuery query = WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery();
         ApplicableRegionSet set = query.getApplicableRegions(location);
         StateFlag.State state = set.queryState(localPlayer, WorldGuardIntegration.DESIREPATHS_PATHS);
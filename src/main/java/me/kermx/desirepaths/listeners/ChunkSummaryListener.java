@@ -0,0 +1,145 @@
+package me.kermx.desirepaths.listeners;
+
+import me.kermx.desirepaths.managers.ChunkSummaryCache;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFertilizeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.List;
+
+/**
+ * Turns on the sections of the chunk summaries that a block change may have
+ * put a transition source in, e.g. grass spreading onto dirt, and drops the
+ * summaries of unloaded chunks. BlockFormEvent and BlockSpreadEvent are
+ * handled as the BlockGrowEvent they extend.
+ */
+public class ChunkSummaryListener implements Listener {
+    private final ChunkSummaryCache chunkSummaryCache;
+
+    public ChunkSummaryListener(final ChunkSummaryCache chunkSummaryCache) {
+        this.chunkSummaryCache = chunkSummaryCache;
+    }
+
+    private void mark(final BlockState state) {
+        chunkSummaryCache.mark(state.getWorld().getUID(), state.getX(), state.getY(), state.getZ(), state.getType());
+    }
+
+    private void mark(final List<BlockState> states) {
+        for (final BlockState state : states) {
+            mark(state);
+        }
+    }
+
+    private void invalidate(final Block block) {
+        chunkSummaryCache.invalidate(block.getWorld().getUID(), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    // Pistons move many blocks, possibly into the next chunk, the summaries are simply taken again
+    private void invalidate(final List<Block> blocks, final BlockFace direction) {
+        for (final Block block : blocks) {
+            invalidate(block);
+            invalidate(block.getRelative(direction));
+            invalidate(block.getRelative(direction.getOppositeFace()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockPlaceEvent event) {
+        chunkSummaryCache.mark(event.getBlock(), event.getBlockPlaced().getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockBreakEvent event) {
+        chunkSummaryCache.mark(event.getBlock(), Material.AIR);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockGrowEvent event) {
+        mark(event.getNewState());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockFadeEvent event) {
+        mark(event.getNewState());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockFertilizeEvent event) {
+        mark(event.getBlocks());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final StructureGrowEvent event) {
+        mark(event.getBlocks());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final EntityChangeBlockEvent event) {
+        chunkSummaryCache.mark(event.getBlock(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockFromToEvent event) {
+        chunkSummaryCache.mark(event.getToBlock(), event.getBlock().getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final LeavesDecayEvent event) {
+        chunkSummaryCache.mark(event.getBlock(), Material.AIR);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockExplodeEvent event) {
+        for (final Block block : event.blockList()) {
+            chunkSummaryCache.mark(block, Material.AIR);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final EntityExplodeEvent event) {
+        for (final Block block : event.blockList()) {
+            chunkSummaryCache.mark(block, Material.AIR);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockPistonExtendEvent event) {
+        invalidate(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockPistonRetractEvent event) {
+        invalidate(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final ChunkUnloadEvent event) {
+        final Chunk chunk = event.getChunk();
+        chunkSummaryCache.invalidate(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final WorldUnloadEvent event) {
+        chunkSummaryCache.invalidateWorld(event.getWorld().getUID());
+    }
+}
@@ -0,0 +1,52 @@
+package me.kermx.desirepaths.listeners;
+
+import me.kermx.desirepaths.managers.BiomeCache;
+import me.kermx.desirepaths.managers.WeatherTracker;
+import me.kermx.desirepaths.rules.WorldRules;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.weather.WeatherChangeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps the weather of every world and the cached chunk biomes up to
+ * date, so the weather and biome modifiers need no lookups per attempt.
+ * The weather of a newly loaded world is set by {@link WorldRulesListener},
+ * together with its id.
+ */
+public class EnvironmentListener implements Listener {
+    private final WorldRules worldRules;
+    private final WeatherTracker weatherTracker;
+    private final BiomeCache biomeCache;
+
+    public EnvironmentListener(final WorldRules worldRules, final WeatherTracker weatherTracker, final BiomeCache biomeCache) {
+        this.worldRules = worldRules;
+        this.weatherTracker = weatherTracker;
+        this.biomeCache = biomeCache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final WeatherChangeEvent event) {
+        weatherTracker.setRaining(worldRules.getId(event.getWorld().getUID()), event.toWeatherState());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final ChunkLoadEvent event) {
+        biomeCache.load(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final ChunkUnloadEvent event) {
+        final Chunk chunk = event.getChunk();
+        biomeCache.invalidate(chunk.getWorld().getUID(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final WorldUnloadEvent event) {
+        biomeCache.invalidateWorld(event.getWorld().getUID());
+    }
+}
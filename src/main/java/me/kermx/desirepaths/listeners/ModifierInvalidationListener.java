@@ -0,0 +1,107 @@
+package me.kermx.desirepaths.listeners;
+
+import me.kermx.desirepaths.managers.ModifierCache;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockDispenseArmorEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerGameModeChangeEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemBreakEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.vehicle.VehicleEnterEvent;
+import org.bukkit.event.vehicle.VehicleExitEvent;
+
+/**
+ * Drops the cached chance modifier of a player whenever their
+ * boots or vehicle may have changed.
+ */
+public class ModifierInvalidationListener implements Listener {
+    private final ModifierCache modifierCache;
+
+    public ModifierInvalidationListener(final ModifierCache modifierCache) {
+        this.modifierCache = modifierCache;
+    }
+
+    private void invalidate(final Entity entity) {
+        if (entity instanceof Player) {
+            modifierCache.invalidate(entity.getUniqueId());
+        }
+    }
+
+    // Armor and inventory
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final InventoryClickEvent event) {
+        invalidate(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final InventoryDragEvent event) {
+        invalidate(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final PlayerInteractEvent event) {
+        // Right clicking boots equips them
+        if (event.getItem() != null) {
+            invalidate(event.getPlayer());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final PlayerItemBreakEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final BlockDispenseArmorEvent event) {
+        invalidate(event.getTargetEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final PlayerDeathEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final PlayerRespawnEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    // Vehicles
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final VehicleEnterEvent event) {
+        invalidate(event.getEntered());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final VehicleExitEvent event) {
+        invalidate(event.getExited());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final PlayerChangedWorldEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    // Game mode, the creative inventory bypasses the click events
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final PlayerGameModeChangeEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    @EventHandler
+    public void on(final PlayerQuitEvent event) {
+        modifierCache.invalidate(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,193 @@
+package me.kermx.desirepaths.listeners;
+
+import me.kermx.desirepaths.schedulers.SchedulerAdapter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.attribute.AttributeModifier;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Makes players faster while they stand on a path. Only registered while
+ * pathSpeedBoost is on.
+ * <p>
+ * Moves within the same block are dropped with a few compares, like in
+ * {@link PlayerMoveEventListener}. Otherwise the block under the feet is
+ * tested against a bitset of the surfaces by material ordinal, and the
+ * movement speed modifier is only added or removed when the player steps
+ * onto or off a surface. Blocks without collision, e.g. air while jumping,
+ * keep the current state, so jumping along a path does not flip it.
+ * <p>
+ * The modifier is saved with the player, so it is removed on quit and,
+ * in case the server stopped without that, on join. It is also removed on
+ * respawn and world change, the next step onto a path adds it again.
+ */
+public class PathSpeedListener implements Listener {
+    private static final UUID MODIFIER_ID = UUID.fromString("3c5a3e43-9d0b-4f1e-8a3e-5c1f2b9d7a61");
+    private static final String MODIFIER_NAME = "desirepaths.pathSpeedBoost";
+    private static final double FEET_OFFSET = 0.0625; // so a dirt path, 15/16 high, is the block under the feet
+
+    private final long[] surfaces; // bit per material ordinal
+    private final AttributeModifier modifier;
+    private final boolean regionThreaded;
+    private final Set<UUID> boosted = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs the listener.
+     *
+     * @param surfaces       The blocks that boost the players on them
+     * @param amount         How much faster, 0.15 is 15%
+     * @param regionThreaded Is the server region-threaded, teleport destinations are not read there
+     */
+    public PathSpeedListener(final Set<Material> surfaces, final double amount, final boolean regionThreaded) {
+        this.surfaces = new long[(Material.values().length + 63) >>> 6];
+        for (final Material surface : surfaces) {
+            this.surfaces[surface.ordinal() >>> 6] |= 1L << surface.ordinal();
+        }
+        this.modifier = new AttributeModifier(MODIFIER_ID, MODIFIER_NAME, amount, AttributeModifier.Operation.MULTIPLY_SCALAR_1);
+        this.regionThreaded = regionThreaded;
+    }
+
+    private boolean isSurface(final Material type) {
+        return (surfaces[type.ordinal() >>> 6] & (1L << type.ordinal())) != 0;
+    }
+
+    private static int feetY(final Location location) {
+        return Location.locToBlock(location.getY() - FEET_OFFSET);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final PlayerMoveEvent event) {
+        moved(event.getPlayer(), event.getFrom(), event.getTo());
+    }
+
+    // Teleports have their own handler list and are not seen as moves
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final PlayerTeleportEvent event) {
+        final Location to = event.getTo();
+
+        // The destination may not be loaded yet, or owned by another thread, drop the boost until the next step
+        if (to == null || regionThreaded || to.getWorld() != event.getFrom().getWorld()
+                || !to.getWorld().isChunkLoaded(to.getBlockX() >> 4, to.getBlockZ() >> 4)) {
+            removeBoost(event.getPlayer());
+            return;
+        }
+        moved(event.getPlayer(), event.getFrom(), to);
+    }
+
+    private void moved(final Player player, final Location from, final Location to) {
+        if (to == null) {
+            return;
+        }
+
+        final int x = to.getBlockX();
+        final int y = feetY(to);
+        final int z = to.getBlockZ();
+        if (from.getWorld() == to.getWorld() && from.getBlockX() == x && feetY(from) == y && from.getBlockZ() == z) {
+            return;
+        }
+
+        final World world = to.getWorld();
+        if (world == null || y < world.getMinHeight() || y >= world.getMaxHeight()) {
+            return;
+        }
+        final Material type = world.getType(x, y, z);
+        if (!type.isSolid()) {
+            return;
+        }
+
+        final boolean onPath = isSurface(type);
+        if (onPath == boosted.contains(player.getUniqueId())) {
+            return;
+        }
+        if (onPath) {
+            addBoost(player);
+        } else {
+            removeBoost(player);
+        }
+    }
+
+    private void addBoost(final Player player) {
+        final AttributeInstance speed = player.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED);
+        if (speed == null) {
+            return;
+        }
+
+        removeModifier(speed);
+        speed.addModifier(modifier);
+        boosted.add(player.getUniqueId());
+    }
+
+    private void removeBoost(final Player player) {
+        boosted.remove(player.getUniqueId());
+        final AttributeInstance speed = player.getAttribute(Attribute.GENERIC_MOVEMENT_SPEED);
+
+        if (speed != null) {
+            removeModifier(speed);
+        }
+    }
+
+    // By id, so a modifier left from before a restart or with another amount is found too
+    private static void removeModifier(final AttributeInstance speed) {
+        for (final AttributeModifier existing : speed.getModifiers()) {
+            if (MODIFIER_ID.equals(existing.getUniqueId())) {
+                speed.removeModifier(existing);
+            }
+        }
+    }
+
+    @EventHandler
+    public void on(final PlayerJoinEvent event) {
+        removeBoost(event.getPlayer());
+    }
+
+    @EventHandler
+    public void on(final PlayerQuitEvent event) {
+        removeBoost(event.getPlayer());
+    }
+
+    @EventHandler
+    public void on(final PlayerRespawnEvent event) {
+        removeBoost(event.getPlayer());
+    }
+
+    @EventHandler
+    public void on(final PlayerChangedWorldEvent event) {
+        removeBoost(event.getPlayer());
+    }
+
+    /**
+     * Removes the boost from every player that has it, e.g. when the listener is replaced on reload.
+     *
+     * @param scheduler Runs the removal on the thread owning each player, null to remove on this thread
+     */
+    public void removeAll(final SchedulerAdapter scheduler) {
+        for (final UUID playerId : boosted) {
+            final Player player = Bukkit.getPlayer(playerId);
+
+            if (player == null) {
+                boosted.remove(playerId);
+            } else if (scheduler == null) {
+                removeBoost(player);
+            } else {
+                scheduler.runForEntity(player, () -> removeBoost(player));
+            }
+        }
+    }
+}
@@ -1,35 +1,40 @@
 package me.kermx.desirepaths.listeners;
 
-import me.kermx.desirepaths.files.Config;
+import me.kermx.desirepaths.managers.MovementTracker;
+import org.bukkit.Location;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-
+/**
+ * Feeds the movement tracker. Only registered while movementCheckEnabled
+ * is on. PlayerMoveEvent fires for every head rotation too, so anything
+ * that does not change the block position is dropped with a few int compares.
+ */
 public class PlayerMoveEventListener implements Listener {
-    private final Config fileConfig;
-    private final boolean movementCheckEnabled;
-
-    private final Map<UUID, Boolean> movedPlayers;
+    private final MovementTracker movementTracker;
 
-    public PlayerMoveEventListener(final Config fileConfig) {
-        this.fileConfig = fileConfig;
-        movementCheckEnabled = fileConfig.isMovementCheckEnabled();
-        movedPlayers = new HashMap<>();
+    public PlayerMoveEventListener(final MovementTracker movementTracker) {
+        this.movementTracker = movementTracker;
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void on(final PlayerMoveEvent event) {
-        if (movementCheckEnabled) {
-            final UUID playerId = event.getPlayer().getUniqueId();
-            movedPlayers.putIfAbsent(playerId, true);
+        final Location from = event.getFrom();
+        final Location to = event.getTo();
+
+        if (to == null || (from.getBlockX() == to.getBlockX()
+                && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ())) {
+            return;
         }
+        movementTracker.markMoved(event.getPlayer().getUniqueId());
     }
 
-    public Map<UUID, Boolean> getMovedPlayers() {
-        return movedPlayers;
+    @EventHandler
+    public void on(final PlayerQuitEvent event) {
+        movementTracker.forget(event.getPlayer().getUniqueId());
     }
 }
@@ -0,0 +1,41 @@
+package me.kermx.desirepaths.listeners;
+
+import me.kermx.desirepaths.managers.ToggleManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Loads the toggle of a player while they log in, off the main thread,
+ * and drops it again once they leave.
+ */
+public class ToggleLoadListener implements Listener {
+    private final ToggleManager toggleManager;
+
+    public ToggleLoadListener(final ToggleManager toggleManager) {
+        this.toggleManager = toggleManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            toggleManager.load(event.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final PlayerLoginEvent event) {
+        // Denied after pre-login, there will be no quit to unload it
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            toggleManager.unload(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final PlayerQuitEvent event) {
+        toggleManager.unload(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,93 @@
+package me.kermx.desirepaths.listeners;
+
+import me.kermx.desirepaths.paths.WearTracker;
+import me.kermx.desirepaths.schedulers.SchedulerAdapter;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the wear region of a chunk in the background as soon as the chunk
+ * loads, so the first footstep in it does not wait for the disk, and
+ * releases the region once none of its chunks are loaded anymore.
+ * <p>
+ * The loaded chunks are counted per region. A region with a chunk that
+ * loaded before the listener and was not passed to {@link #track(Chunk)}
+ * may be released early; it is simply mapped again on the next step.
+ */
+public class WearRegionListener implements Listener {
+    private final WearTracker wearTracker;
+    private final SchedulerAdapter scheduler;
+    private final Map<UUID, Map<Long, Integer>> loadedChunks = new ConcurrentHashMap<>();
+
+    public WearRegionListener(final WearTracker wearTracker, final SchedulerAdapter scheduler) {
+        this.wearTracker = wearTracker;
+        this.scheduler = scheduler;
+    }
+
+    private static long regionKey(final int chunkX, final int chunkZ) {
+        return ((long) (chunkX >> 5) << 32) | ((chunkZ >> 5) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Counts a chunk that was already loaded when the listener was registered.
+     */
+    public void track(final Chunk chunk) {
+        loadedChunks.computeIfAbsent(chunk.getWorld().getUID(), id -> new ConcurrentHashMap<>())
+                .merge(regionKey(chunk.getX(), chunk.getZ()), 1, Integer::sum);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final ChunkLoadEvent event) {
+        final Chunk chunk = event.getChunk();
+        final UUID worldId = chunk.getWorld().getUID();
+        final int chunkX = chunk.getX();
+        final int chunkZ = chunk.getZ();
+        track(chunk);
+
+        // A region spans 1024 chunks, so this is almost always already loaded
+        if (wearTracker.needsPreload(worldId, chunkX, chunkZ)) {
+            scheduler.runAsync(() -> wearTracker.preload(worldId, chunkX, chunkZ));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final ChunkUnloadEvent event) {
+        final Chunk chunk = event.getChunk();
+        final UUID worldId = chunk.getWorld().getUID();
+        final Map<Long, Integer> regions = loadedChunks.get(worldId);
+
+        if (regions == null) {
+            return;
+        }
+
+        final int chunkX = chunk.getX();
+        final int chunkZ = chunk.getZ();
+        final long key = regionKey(chunkX, chunkZ);
+        // Chunks never counted are ignored, so a region is only released after all its counted chunks unloaded
+        if (!regions.containsKey(key) || regions.computeIfPresent(key, (region, count) -> count > 1 ? count - 1 : null) != null) {
+            return;
+        }
+        scheduler.runAsync(() -> {
+            // A chunk of the region may have loaded again in the meantime
+            if (!regions.containsKey(key)) {
+                wearTracker.unloadRegion(worldId, chunkX, chunkZ);
+            }
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void on(final WorldUnloadEvent event) {
+        final UUID worldId = event.getWorld().getUID();
+        loadedChunks.remove(worldId);
+        scheduler.runAsync(() -> wearTracker.unloadWorld(worldId));
+    }
+}
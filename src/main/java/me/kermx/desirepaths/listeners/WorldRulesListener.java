@@ -0,0 +1,38 @@
+package me.kermx.desirepaths.listeners;
+
+import me.kermx.desirepaths.managers.WeatherTracker;
+import me.kermx.desirepaths.rules.WorldRules;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+
+/**
+ * Gives worlds their id and rules and starts tracking their weather. The
+ * only place ids are assigned, for the worlds loaded at startup as well
+ * as the ones that load later.
+ */
+public class WorldRulesListener implements Listener {
+    private final WorldRules worldRules;
+    private final WeatherTracker weatherTracker;
+
+    public WorldRulesListener(final WorldRules worldRules, final WeatherTracker weatherTracker) {
+        this.worldRules = worldRules;
+        this.weatherTracker = weatherTracker;
+    }
+
+    /**
+     * Registers the world, safe to call again for a world already known.
+     *
+     * @param world The world
+     */
+    public void register(final World world) {
+        weatherTracker.setRaining(worldRules.register(world.getUID(), world.getName()), world.hasStorm());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(final WorldLoadEvent event) {
+        register(event.getWorld());
+    }
+}
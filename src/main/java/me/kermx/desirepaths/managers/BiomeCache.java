@@ -0,0 +1,121 @@
+package me.kermx.desirepaths.managers;
+
+import me.kermx.desirepaths.paths.BlockMutation;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The surface biomes of loaded chunks, so the biome modifiers do not
+ * call getBiome for every footstep.
+ * <p>
+ * A chunk is sampled when it loads, one biome per 4x4 column, which is
+ * the resolution biomes are stored in. The biome is read at the highest
+ * block of the column, so players under the surface get the biome above
+ * them. Chunks loaded before the cache was enabled are sampled the first
+ * time a player is captured in them. Entries are dropped when the chunk
+ * unloads.
+ */
+public class BiomeCache {
+    private static final int CELLS = 4; // 4x4 columns of 4x4 blocks per chunk
+
+    private final Map<UUID, Map<Long, Biome[]>> worlds = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+
+    /**
+     * Applies the settings, called on load and on reload.
+     *
+     * @param enabled Are biomes cached at all, only when some world has biome modifiers
+     */
+    public void configure(final boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Samples the biomes of a chunk. Must be called on the thread owning the chunk.
+     *
+     * @param chunk The chunk
+     */
+    public void load(final Chunk chunk) {
+        if (enabled) {
+            sample(chunk.getWorld(), chunk.getX(), chunk.getZ());
+        }
+    }
+
+    /**
+     * Returns the biome of a column, sampling its chunk if it is not cached yet.
+     * Must be called on the thread owning the chunk.
+     *
+     * @param world The world
+     * @param x     Block x
+     * @param z     Block z
+     * @return The biome, null while disabled
+     */
+    public Biome get(final World world, final int x, final int z) {
+        if (!enabled) {
+            return null;
+        }
+
+        final Map<Long, Biome[]> chunks = worlds.get(world.getUID());
+        Biome[] biomes = chunks == null ? null : chunks.get(BlockMutation.chunkKey(x >> 4, z >> 4));
+        if (biomes == null) {
+            biomes = sample(world, x >> 4, z >> 4);
+        }
+        return biomes[cell((x & 15) >> 2, (z & 15) >> 2)];
+    }
+
+    private Biome[] sample(final World world, final int chunkX, final int chunkZ) {
+        final Biome[] biomes = new Biome[CELLS * CELLS];
+
+        for (int cellX = 0; cellX < CELLS; cellX++) {
+            for (int cellZ = 0; cellZ < CELLS; cellZ++) {
+                // The middle of the column
+                final int x = (chunkX << 4) + (cellX << 2) + 2;
+                final int z = (chunkZ << 4) + (cellZ << 2) + 2;
+                biomes[cell(cellX, cellZ)] = world.getBiome(x, world.getHighestBlockYAt(x, z), z);
+            }
+        }
+        worlds.computeIfAbsent(world.getUID(), id -> new ConcurrentHashMap<>()).put(BlockMutation.chunkKey(chunkX, chunkZ), biomes);
+        return biomes;
+    }
+
+    private static int cell(final int cellX, final int cellZ) {
+        return cellX * CELLS + cellZ;
+    }
+
+    /**
+     * Drops the biomes of a chunk.
+     *
+     * @param worldId The UID of the world
+     * @param chunkX  Chunk x
+     * @param chunkZ  Chunk z
+     */
+    public void invalidate(final UUID worldId, final int chunkX, final int chunkZ) {
+        final Map<Long, Biome[]> chunks = worlds.get(worldId);
+
+        if (chunks != null) {
+            chunks.remove(BlockMutation.chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Drops the biomes of a world.
+     *
+     * @param worldId The UID of the world
+     */
+    public void invalidateWorld(final UUID worldId) {
+        worlds.remove(worldId);
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+}
@@ -0,0 +1,256 @@
+package me.kermx.desirepaths.managers;
+
+import me.kermx.desirepaths.paths.BlockMutation;
+import me.kermx.desirepaths.paths.BlockView;
+import me.kermx.desirepaths.schedulers.SchedulerAdapter;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers which 16x16x16 sections of the chunks players walk in hold
+ * any block with a transition, so the path attempt can skip positions
+ * that cannot change, like a stone floor or finished paths, without
+ * scheduling main thread work.
+ * <p>
+ * A chunk is summarized the first time a player is captured in it: its
+ * snapshot is taken once on the thread owning the chunk and scanned off
+ * the main thread, until then every position counts as changeable. After
+ * the scan a section only turns on, when a block event or DesirePaths
+ * itself puts a transition source in it, so a source is never missed
+ * because of a stale summary. Sections only turn off again on the next
+ * scan, after rescanSeconds, which also picks up changes made without an
+ * event, e.g. by other plugins. Summaries are dropped when the chunk
+ * unloads and on a reload that changes the transitions, as they depend on them.
+ */
+public class ChunkSummaryCache implements BlockView {
+    private final Map<UUID, Map<Long, Summary>> worlds = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+    private volatile long rescanNanos;
+    private volatile int maxEntries;
+    private volatile long[] sources = new long[0]; // bit per material ordinal
+
+    /**
+     * Applies the settings, called on load and on reload. The summaries are
+     * only dropped when the sources, enabled or maxEntries changed, so a reload
+     * that keeps the transitions does not snapshot every chunk again.
+     *
+     * @param enabled       Are chunks summarized at all
+     * @param sources       Every material that has a transition, in any layer and world
+     * @param rescanSeconds How long a summary is used before the chunk is scanned again
+     * @param maxEntries    The most chunks summarized
+     */
+    public void configure(final boolean enabled, final Set<Material> sources, final int rescanSeconds, final int maxEntries) {
+        final long[] bits = new long[(Material.values().length + 63) >>> 6];
+        for (final Material source : sources) {
+            bits[source.ordinal() >>> 6] |= 1L << source.ordinal();
+        }
+
+        final int entries = Math.max(1, maxEntries);
+        final boolean changed = enabled != this.enabled || entries != this.maxEntries || !Arrays.equals(bits, this.sources);
+
+        this.sources = bits;
+        this.rescanNanos = TimeUnit.SECONDS.toNanos(Math.max(1, rescanSeconds));
+        this.maxEntries = entries;
+        this.enabled = enabled;
+        if (changed) {
+            clear();
+        }
+    }
+
+    private boolean isSource(final Material type) {
+        final long[] bits = sources;
+        return (bits[type.ordinal() >>> 6] & (1L << type.ordinal())) != 0;
+    }
+
+    /**
+     * Summarizes the chunk unless a fresh summary exists. The snapshot is taken
+     * here, the scan runs async. Must be called on the thread owning the chunk.
+     *
+     * @param chunk     The chunk
+     * @param scheduler Runs the scan
+     */
+    public void capture(final Chunk chunk, final SchedulerAdapter scheduler) {
+        if (!enabled) {
+            return;
+        }
+
+        final World world = chunk.getWorld();
+        final Map<Long, Summary> chunks = worlds.computeIfAbsent(world.getUID(), id -> new ConcurrentHashMap<>());
+        final long key = BlockMutation.chunkKey(chunk.getX(), chunk.getZ());
+        final long now = System.nanoTime();
+        final Summary cached = chunks.get(key);
+
+        if (cached != null && now - cached.capturedAt < rescanNanos) {
+            return;
+        }
+        if (cached == null && size() >= maxEntries) {
+            return;
+        }
+
+        final ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+        final Summary summary = new Summary(world.getMinHeight(), world.getMaxHeight(), now);
+        final long[] bits = sources;
+        chunks.put(key, summary);
+        scheduler.runAsync(() -> summary.scan(snapshot, bits));
+    }
+
+    @Override
+    public boolean mayChange(final UUID worldId, final int x, final int y, final int z) {
+        final Map<Long, Summary> chunks = worlds.get(worldId);
+        if (chunks == null) {
+            return true;
+        }
+
+        final Summary summary = chunks.get(BlockMutation.chunkKey(x >> 4, z >> 4));
+        return summary == null || summary.mayChange(y);
+    }
+
+    /**
+     * Turns the section of a block on if its new type has a transition.
+     * Called for every change the cache cannot see coming, on any thread.
+     *
+     * @param block The block
+     * @param type  The new type of the block
+     */
+    public void mark(final Block block, final Material type) {
+        mark(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ(), type);
+    }
+
+    /**
+     * Turns the section of a position on if its new type has a transition.
+     *
+     * @param worldId The UID of the world
+     * @param x       Block x
+     * @param y       Block y
+     * @param z       Block z
+     * @param type    The new type of the block
+     */
+    public void mark(final UUID worldId, final int x, final int y, final int z, final Material type) {
+        if (!isSource(type)) {
+            return;
+        }
+
+        final Map<Long, Summary> chunks = worlds.get(worldId);
+        final Summary summary = chunks == null ? null : chunks.get(BlockMutation.chunkKey(x >> 4, z >> 4));
+        if (summary != null) {
+            summary.mark(y);
+        }
+    }
+
+    /**
+     * Drops the summary of a chunk, it is taken again the next time a player is in it.
+     *
+     * @param worldId The UID of the world
+     * @param chunkX  Chunk x
+     * @param chunkZ  Chunk z
+     */
+    public void invalidate(final UUID worldId, final int chunkX, final int chunkZ) {
+        final Map<Long, Summary> chunks = worlds.get(worldId);
+
+        if (chunks != null) {
+            chunks.remove(BlockMutation.chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Drops the summaries of a world.
+     *
+     * @param worldId The UID of the world
+     */
+    public void invalidateWorld(final UUID worldId) {
+        worlds.remove(worldId);
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for (final Map<Long, Summary> chunks : worlds.values()) {
+            size += chunks.size();
+        }
+        return size;
+    }
+
+    /**
+     * The sections of one chunk that hold a transition source. Until the
+     * scan is done every section counts as on.
+     */
+    private static final class Summary {
+        private final int minY;
+        private final int maxY;
+        private final long capturedAt;
+        private final AtomicLongArray marked; // turned on since the snapshot was taken
+        private volatile long[] scanned; // null until the scan is done
+
+        private Summary(final int minY, final int maxY, final long capturedAt) {
+            this.minY = minY;
+            this.maxY = maxY;
+            this.capturedAt = capturedAt;
+            this.marked = new AtomicLongArray(((maxY - minY) >> 4 >>> 6) + 1);
+        }
+
+        private boolean mayChange(final int y) {
+            if (y < minY || y >= maxY) {
+                return false;
+            }
+
+            final long[] bits = scanned;
+            final int section = (y - minY) >> 4;
+            return bits == null
+                    || (bits[section >>> 6] & (1L << section)) != 0
+                    || (marked.get(section >>> 6) & (1L << section)) != 0;
+        }
+
+        private void mark(final int y) {
+            if (y < minY || y >= maxY) {
+                return;
+            }
+
+            final int section = (y - minY) >> 4;
+            marked.getAndAccumulate(section >>> 6, 1L << section, (current, bit) -> current | bit);
+        }
+
+        private void scan(final ChunkSnapshot snapshot, final long[] sources) {
+            final long[] bits = new long[marked.length()];
+            final boolean airIsSource = (sources[Material.AIR.ordinal() >>> 6] & (1L << Material.AIR.ordinal())) != 0;
+            final int sections = (maxY - minY) >> 4;
+
+            for (int section = 0; section < sections; section++) {
+                final int sectionY = minY + (section << 4);
+                // isSectionEmpty takes the index from the bottom of the world, not the section y
+                if ((airIsSource || !snapshot.isSectionEmpty(section)) && containsSource(snapshot, sources, sectionY)) {
+                    bits[section >>> 6] |= 1L << section;
+                }
+            }
+            scanned = bits;
+        }
+
+        private static boolean containsSource(final ChunkSnapshot snapshot, final long[] sources, final int sectionY) {
+            for (int y = sectionY; y < sectionY + 16; y++) {
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        final int ordinal = snapshot.getBlockType(x, y, z).ordinal();
+                        if ((sources[ordinal >>> 6] & (1L << ordinal)) != 0) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package me.kermx.desirepaths.managers;
+
+import me.kermx.desirepaths.rules.ModifierType;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the chance modifier of each player. Boots and vehicles
+ * rarely change between attempts, so the inventory is only read again
+ * after ModifierInvalidationListener saw something that may change them.
+ */
+public class ModifierCache {
+    private final Map<UUID, ModifierType> modifiers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached modifier of the player, resolving it on a miss.
+     * Must be called on the main thread.
+     *
+     * @param player The player
+     * @return The modifier
+     */
+    public ModifierType get(final Player player) {
+        final ModifierType cached = modifiers.get(player.getUniqueId());
+
+        if (cached != null) {
+            return cached;
+        }
+
+        final ModifierType modifier = resolve(player);
+        modifiers.put(player.getUniqueId(), modifier);
+        return modifier;
+    }
+
+    /**
+     * Drops the cached modifier of the player.
+     *
+     * @param playerId The UUID of the player
+     */
+    public void invalidate(final UUID playerId) {
+        modifiers.remove(playerId);
+    }
+
+    /**
+     * Drops every cached modifier.
+     */
+    public void invalidateAll() {
+        modifiers.clear();
+    }
+
+    private static ModifierType resolve(final Player player) {
+        final Entity vehicle = player.getVehicle();
+        final ItemStack boots = player.getInventory().getBoots();
+
+        return ModifierType.of(
+                vehicle == null ? null : vehicle.getType(),
+                boots == null ? null : boots.getType(),
+                boots != null && boots.containsEnchantment(Enchantment.PROTECTION_FALL)
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package me.kermx.desirepaths.managers;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which players crossed a block boundary since the last
+ * path attempt. Written by the move listener and drained by the
+ * scheduler; both sides are lock-free and may run on any thread.
+ */
+public class MovementTracker {
+    private final Set<UUID> movedPlayers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Marks the player as moved.
+     *
+     * @param playerId The UUID of the player
+     */
+    public void markMoved(final UUID playerId) {
+        movedPlayers.add(playerId);
+    }
+
+    /**
+     * Atomically reads and clears the moved flag of the player.
+     *
+     * @param playerId The UUID of the player
+     * @return Did the player move since the last call
+     */
+    public boolean consume(final UUID playerId) {
+        return movedPlayers.remove(playerId);
+    }
+
+    /**
+     * Forgets the player, e.g. when they leave.
+     *
+     * @param playerId The UUID of the player
+     */
+    public void forget(final UUID playerId) {
+        movedPlayers.remove(playerId);
+    }
+
+    /**
+     * Forgets all players.
+     */
+    public void clear() {
+        movedPlayers.clear();
+    }
+}
@@ -0,0 +1,139 @@
+package me.kermx.desirepaths.managers;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the toggles in an embedded SQLite database, using the driver that
+ * ships with the server. Toggles are looked up one player at a time, so
+ * neither memory nor startup depend on how many players ever toggled.
+ * <p>
+ * On first start an existing toggleData.yml is copied into the database
+ * once and renamed to toggleData.yml.migrated.
+ */
+public class SqliteToggleStore implements ToggleStore {
+    private static final String MAINTENANCE_MODE_SETTING = "maintenanceMode";
+
+    private final Connection connection;
+
+    /**
+     * Opens the database, creating and migrating it if needed.
+     *
+     * @param databaseFile The database file
+     * @param yamlFile     The toggleData.yml to migrate from
+     * @param logger       The logger
+     * @throws IOException If the database cannot be opened
+     */
+    public SqliteToggleStore(final File databaseFile, final File yamlFile, final Logger logger) throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            databaseFile.getParentFile().mkdirs();
+            connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS toggles (uuid CHAR(36) PRIMARY KEY, enabled BOOLEAN NOT NULL)");
+                statement.execute("CREATE TABLE IF NOT EXISTS settings (name VARCHAR(64) PRIMARY KEY, value VARCHAR(255) NOT NULL)");
+            }
+        } catch (final ClassNotFoundException | SQLException e) {
+            throw new IOException("Could not open " + databaseFile.getName(), e);
+        }
+
+        if (yamlFile.exists()) {
+            migrate(yamlFile, logger);
+        }
+    }
+
+    private void migrate(final File yamlFile, final Logger logger) throws IOException {
+        final YamlConfiguration config = YamlConfiguration.loadConfiguration(yamlFile);
+        final Map<UUID, Boolean> toggles = new HashMap<>();
+        YamlToggleStore.read(config, toggles, logger);
+
+        save(toggles, config.getBoolean(YamlToggleStore.MAINTENANCE_MODE_KEY, false));
+
+        final File migrated = new File(yamlFile.getParentFile(), yamlFile.getName() + ".migrated");
+        if (!yamlFile.renameTo(migrated)) {
+            throw new IOException("Could not rename " + yamlFile.getName() + " after migrating it");
+        }
+        logger.info(String.format("Migrated %d toggles from %s to the database", toggles.size(), yamlFile.getName()));
+    }
+
+    @Override
+    public synchronized Boolean loadToggle(final UUID playerId) throws IOException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT enabled FROM toggles WHERE uuid = ?")) {
+            statement.setString(1, playerId.toString());
+
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getBoolean(1) : null;
+            }
+        } catch (final SQLException e) {
+            throw new IOException("Could not load the toggle of " + playerId, e);
+        }
+    }
+
+    @Override
+    public synchronized boolean loadMaintenanceMode() throws IOException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT value FROM settings WHERE name = ?")) {
+            statement.setString(1, MAINTENANCE_MODE_SETTING);
+
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && Boolean.parseBoolean(result.getString(1));
+            }
+        } catch (final SQLException e) {
+            throw new IOException("Could not load the maintenance mode", e);
+        }
+    }
+
+    @Override
+    public synchronized void save(final Map<UUID, Boolean> toggles, final Boolean maintenanceMode) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement statement = connection.prepareStatement("INSERT OR REPLACE INTO toggles (uuid, enabled) VALUES (?, ?)")) {
+                for (final Map.Entry<UUID, Boolean> entry : toggles.entrySet()) {
+                    statement.setString(1, entry.getKey().toString());
+                    statement.setBoolean(2, entry.getValue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            if (maintenanceMode != null) {
+                try (PreparedStatement statement = connection.prepareStatement("INSERT OR REPLACE INTO settings (name, value) VALUES (?, ?)")) {
+                    statement.setString(1, MAINTENANCE_MODE_SETTING);
+                    statement.setString(2, maintenanceMode.toString());
+                    statement.executeUpdate();
+                }
+            }
+            connection.commit();
+        } catch (final SQLException e) {
+            try {
+                connection.rollback();
+            } catch (final SQLException ignored) {}
+            throw new IOException("Could not save " + toggles.size() + " toggles", e);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (final SQLException ignored) {}
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (final SQLException ignored) {}
+    }
+}
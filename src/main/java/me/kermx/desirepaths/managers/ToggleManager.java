@@ -5,39 +5,104 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 
 import me.kermx.desirepaths.DesirePaths;
 
+/**
+ * Keeps the path toggle of every online player and the maintenance mode.
+ * <p>
+ * A player's toggle is loaded from the {@link ToggleStore} when they log
+ * in and dropped when they quit. Changes are queued; with write-behind on,
+ * a background thread saves everything queued as one batch after a short
+ * delay, so a burst of toggles costs a single write. Without it every
+ * change is saved right away.
+ */
 public class ToggleManager {
+    private static final boolean DEFAULT_TOGGLE = true;
+
     private final DesirePaths plugin;
-    private final Map<UUID, Boolean> toggleMap = new HashMap<>();
-    private boolean maintenanceMode;
-    private File toggleDataFile;
-    private FileConfiguration toggleDataConfig;
+    private final ToggleStore store;
+    private final Map<UUID, Boolean> onlineToggles = new ConcurrentHashMap<>();
+    private final Map<UUID, Boolean> pendingToggles = new ConcurrentHashMap<>();
+    private volatile boolean maintenanceMode;
+    private final AtomicBoolean maintenanceModeChanged = new AtomicBoolean();
+
+    private final boolean writeBehind;
+    private final long saveDelayMillis;
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService saveExecutor;
 
     public ToggleManager(DesirePaths plugin) {
         this.plugin = plugin;
-        this.toggleDataFile = new File(plugin.getDataFolder(), "toggleData.yml");
+        this.writeBehind = plugin.getFileConfig().isToggleWriteBehind();
+        this.saveDelayMillis = plugin.getFileConfig().getToggleSaveDelayMillis();
+        this.store = openStore();
+
+        try {
+            this.maintenanceMode = store.loadMaintenanceMode();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not load the maintenance mode", e);
+        }
+
+        this.saveExecutor = writeBehind ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DesirePaths-ToggleSaver");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    private ToggleStore openStore() {
+        File yamlFile = new File(plugin.getDataFolder(), "toggleData.yml");
+
+        if ("SQLITE".equalsIgnoreCase(plugin.getFileConfig().getToggleStorage())) {
+            try {
+                return new SqliteToggleStore(new File(plugin.getDataFolder(), "toggleData.db"), yamlFile, plugin.getLogger());
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Could not open the toggle database, falling back to toggleData.yml", e);
+            }
+        }
+        return new YamlToggleStore(yamlFile, plugin.getLogger());
+    }
 
-        // Load toggle states from the toggleData.yml file
-        this.toggleDataConfig = YamlConfiguration.loadConfiguration(toggleDataFile);
-        loadTogglesFromConfig();
+    /**
+     * Loads the toggle of a player that is logging in. Blocks on the store,
+     * so only called off the main thread, e.g. on pre-login.
+     */
+    public void load(UUID playerId) {
+        // An unsaved change is newer than what the store has
+        Boolean toggle = pendingToggles.get(playerId);
 
-        // Load maintenance mode from the toggleData.yml file
-        this.maintenanceMode = toggleDataConfig.getBoolean("maintenanceMode", false);
+        if (toggle == null) {
+            try {
+                toggle = store.loadToggle(playerId);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not load the toggle of " + playerId, e);
+            }
+        }
+        onlineToggles.put(playerId, toggle != null ? toggle : DEFAULT_TOGGLE);
+    }
+
+    /**
+     * Forgets the toggle of a player that quit. A pending change is still saved.
+     */
+    public void unload(UUID playerId) {
+        onlineToggles.remove(playerId);
     }
 
     public boolean getToggle(UUID playerId) {
-        return toggleMap.getOrDefault(playerId, true);
+        return onlineToggles.getOrDefault(playerId, DEFAULT_TOGGLE);
     }
 
     public void setToggle(UUID playerId, boolean toggle) {
-        toggleMap.put(playerId, toggle);
-        toggleDataConfig.set(playerId.toString(), toggle);
-        saveToggleData();
+        onlineToggles.put(playerId, toggle);
+        pendingToggles.put(playerId, toggle);
+        markDirty();
     }
 
     public boolean getMaintenanceMode(){
@@ -46,24 +111,8 @@ public class ToggleManager {
 
     public void setMaintenanceMode(boolean maintenanceMode){
         this.maintenanceMode = maintenanceMode;
-        toggleDataConfig.set("maintenanceMode", maintenanceMode);
-        saveToggleData();
-    }
-
-    private void loadTogglesFromConfig() {
-        for (String key : toggleDataConfig.getKeys(false)) {
-            // Skip the "maintenanceMode" key
-            if (key.equals("maintenanceMode")) {
-                continue;
-            }
-            try {
-                UUID playerId = UUID.fromString(key);
-                boolean toggleState = toggleDataConfig.getBoolean(key);
-                toggleMap.put(playerId, toggleState);
-            } catch (IllegalArgumentException e) {
-                plugin.getLogger().warning("Skipping invalid UUID string: " + key);
-            }
-        }
+        maintenanceModeChanged.set(true);
+        markDirty();
     }
 
     public boolean toggle(UUID playerId) {
@@ -73,11 +122,55 @@ public class ToggleManager {
         return newToggle;
     }
 
-    private void saveToggleData() {
+    /**
+     * Saves any pending change, stops the background writer and releases the store. Called on disable.
+     */
+    public void close() {
+        if (saveExecutor != null) {
+            saveExecutor.shutdownNow();
+            try {
+                saveExecutor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        saveToggleData();
+        store.close();
+    }
+
+    private void markDirty() {
+        if (!writeBehind) {
+            saveToggleData();
+            return;
+        }
+        // Changes made before the write starts all end up in the same batch
+        if (saveScheduled.compareAndSet(false, true)) {
+            saveExecutor.schedule(() -> {
+                saveScheduled.set(false);
+                saveToggleData();
+            }, saveDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void saveToggleData() {
+        Map<UUID, Boolean> batch = new HashMap<>(pendingToggles);
+        Boolean newMaintenanceMode = maintenanceModeChanged.getAndSet(false) ? maintenanceMode : null;
+
+        if (batch.isEmpty() && newMaintenanceMode == null) {
+            return;
+        }
+
         try {
-            toggleDataConfig.save(toggleDataFile);
+            store.save(batch, newMaintenanceMode);
+            // A toggle changed again while saving stays pending
+            for (Map.Entry<UUID, Boolean> entry : batch.entrySet()) {
+                pendingToggles.remove(entry.getKey(), entry.getValue());
+            }
         } catch (IOException e) {
-            plugin.getLogger().warning("Could not save toggle data to " + toggleDataFile.getName());
+            if (newMaintenanceMode != null) {
+                maintenanceModeChanged.set(true);
+            }
+            plugin.getLogger().log(Level.WARNING, "Could not save toggle data", e);
         }
     }
 }
@@ -0,0 +1,45 @@
+package me.kermx.desirepaths.managers;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Where the path toggles and the maintenance mode are kept.
+ * <p>
+ * Calls may block on disk, so apart from the maintenance mode at startup
+ * they are only made off the main thread.
+ */
+public interface ToggleStore {
+
+    /**
+     * Loads the toggle of one player.
+     *
+     * @param playerId The UUID of the player
+     * @return The toggle, null if the player never toggled
+     * @throws IOException If the store cannot be read
+     */
+    Boolean loadToggle(UUID playerId) throws IOException;
+
+    /**
+     * Loads the maintenance mode.
+     *
+     * @return The maintenance mode, false if never set
+     * @throws IOException If the store cannot be read
+     */
+    boolean loadMaintenanceMode() throws IOException;
+
+    /**
+     * Writes a batch of changes at once.
+     *
+     * @param toggles         The changed toggles
+     * @param maintenanceMode The new maintenance mode, null if unchanged
+     * @throws IOException If the store cannot be written
+     */
+    void save(Map<UUID, Boolean> toggles, Boolean maintenanceMode) throws IOException;
+
+    /**
+     * Releases the store.
+     */
+    void close();
+}
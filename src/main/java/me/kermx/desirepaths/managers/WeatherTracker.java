@@ -0,0 +1,40 @@
+package me.kermx.desirepaths.managers;
+
+import java.util.Arrays;
+
+/**
+ * Whether it rains in each world, by the world id of WorldRules. Kept up
+ * to date from WeatherChangeEvent, so capturing a player reads an array
+ * instead of asking the world.
+ */
+public class WeatherTracker {
+    private volatile boolean[] raining = new boolean[0];
+
+    /**
+     * Sets the weather of a world, called when it loads and when its weather changes.
+     *
+     * @param worldIndex The id of the world, see WorldRules
+     * @param raining    Does it rain
+     */
+    public synchronized void setRaining(final int worldIndex, final boolean raining) {
+        if (worldIndex < 0) {
+            return;
+        }
+
+        final boolean[] current = this.raining;
+        final boolean[] updated = Arrays.copyOf(current, Math.max(current.length, worldIndex + 1));
+        updated[worldIndex] = raining;
+        this.raining = updated;
+    }
+
+    /**
+     * Returns whether it rains in a world.
+     *
+     * @param worldIndex The id of the world, see WorldRules
+     * @return Does it rain, false for an unknown world
+     */
+    public boolean isRaining(final int worldIndex) {
+        final boolean[] current = raining;
+        return worldIndex >= 0 && worldIndex < current.length && current[worldIndex];
+    }
+}
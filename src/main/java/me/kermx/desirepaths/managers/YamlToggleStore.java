@@ -0,0 +1,100 @@
+package me.kermx.desirepaths.managers;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the toggles in toggleData.yml. The whole file is read at startup
+ * and rewritten on every save, which is fine for small servers; large
+ * ones should use {@link SqliteToggleStore}.
+ * <p>
+ * A save writes next to the old file and renames over it, so a crash
+ * never leaves half a file.
+ */
+public class YamlToggleStore implements ToggleStore {
+    static final String MAINTENANCE_MODE_KEY = "maintenanceMode";
+
+    private final File file;
+    private final Map<UUID, Boolean> toggles = new ConcurrentHashMap<>();
+    private volatile boolean maintenanceMode;
+
+    /**
+     * Constructs the store, reading the file.
+     *
+     * @param file   The file
+     * @param logger The logger
+     */
+    public YamlToggleStore(final File file, final Logger logger) {
+        this.file = file;
+
+        final FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+        read(config, toggles, logger);
+        maintenanceMode = config.getBoolean(MAINTENANCE_MODE_KEY, false);
+    }
+
+    /**
+     * Reads the toggles of a toggleData.yml, skipping invalid keys.
+     */
+    static void read(final FileConfiguration config, final Map<UUID, Boolean> toggles, final Logger logger) {
+        for (final String key : config.getKeys(false)) {
+            if (key.equals(MAINTENANCE_MODE_KEY)) {
+                continue;
+            }
+            try {
+                toggles.put(UUID.fromString(key), config.getBoolean(key));
+            } catch (final IllegalArgumentException e) {
+                logger.warning("Skipping invalid UUID string: " + key);
+            }
+        }
+    }
+
+    @Override
+    public Boolean loadToggle(final UUID playerId) {
+        return toggles.get(playerId);
+    }
+
+    @Override
+    public boolean loadMaintenanceMode() {
+        return maintenanceMode;
+    }
+
+    @Override
+    public synchronized void save(final Map<UUID, Boolean> changes, final Boolean newMaintenanceMode) throws IOException {
+        toggles.putAll(changes);
+        if (newMaintenanceMode != null) {
+            maintenanceMode = newMaintenanceMode;
+        }
+
+        final YamlConfiguration snapshot = new YamlConfiguration();
+        snapshot.set(MAINTENANCE_MODE_KEY, maintenanceMode);
+        for (final Map.Entry<UUID, Boolean> entry : toggles.entrySet()) {
+            snapshot.set(entry.getKey().toString(), entry.getValue());
+        }
+
+        final Path target = file.toPath();
+        final Path temp = target.resolveSibling(file.getName() + ".tmp");
+        Files.createDirectories(target.getParent());
+        Files.write(temp, snapshot.saveToString().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,95 @@
+package me.kermx.desirepaths.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram with power-of-two nanosecond buckets. Recording
+ * is a few striped adds, so it can sit on the hot path and be fed from
+ * many threads; percentiles are only as exact as their bucket.
+ */
+public final class LatencyHistogram {
+    private static final int BUCKETS = 40; // up to about 18 minutes
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one sample.
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0L, nanos);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value))].increment();
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos() {
+        final long samples = getCount();
+        return samples == 0 ? 0L : getTotalNanos() / samples;
+    }
+
+    /**
+     * Returns the upper bound of the bucket the given percentile falls in.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The latency in nanoseconds, 0 without samples
+     */
+    public long getPercentileNanos(final double percentile) {
+        final long[] snapshot = new long[BUCKETS];
+        long samples = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets[i].sum();
+            samples += snapshot[i];
+        }
+        if (samples == 0) {
+            return 0L;
+        }
+
+        // At least the first sample, so the 0th percentile is the smallest one and not 0
+        final long rank = Math.max(1L, (long) Math.ceil(samples * percentile / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                // The last bucket also holds everything above it, its bound is the max
+                return i == BUCKETS - 1 ? getMaxNanos() : Math.min(i == 0 ? 0L : (1L << i) - 1, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    public void reset() {
+        for (final LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+}
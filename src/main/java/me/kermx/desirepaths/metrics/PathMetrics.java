@@ -0,0 +1,211 @@
+package me.kermx.desirepaths.metrics;
+
+import me.kermx.desirepaths.integrations.ProtectionSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for every stage of the path pipeline.
+ * Everything is striped, so any thread can record without contention.
+ * While disabled, {@link #start()} returns 0 and nothing is recorded.
+ */
+public final class PathMetrics {
+    private static final ProtectionSource[] SOURCES = ProtectionSource.values();
+
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+    private final LatencyHistogram[] checks = new LatencyHistogram[SOURCES.length];
+    private final LongAdder[] blocked = new LongAdder[SOURCES.length];
+
+    private volatile boolean enabled = true;
+    private volatile long sinceMillis = System.currentTimeMillis();
+
+    public PathMetrics() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < SOURCES.length; i++) {
+            checks[i] = new LatencyHistogram();
+            blocked[i] = new LongAdder();
+        }
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the start time of a measurement, 0 while disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the time since start for the stage.
+     *
+     * @param stage The stage
+     * @param start What {@link #start()} returned
+     */
+    public void stop(final Stage stage, final long start) {
+        if (start != 0L) {
+            stages[stage.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the time since start for an integration check, and whether it blocked the change.
+     *
+     * @param source  The integration
+     * @param start   What {@link #start()} returned
+     * @param allowed Did the integration allow the change
+     */
+    public void stopCheck(final ProtectionSource source, final long start, final boolean allowed) {
+        if (start != 0L) {
+            checks[source.ordinal()].record(System.nanoTime() - start);
+            if (!allowed) {
+                blocked[source.ordinal()].increment();
+            }
+        }
+    }
+
+    public void increment(final Counter counter) {
+        if (enabled) {
+            counters[counter.ordinal()].increment();
+        }
+    }
+
+    public void add(final Counter counter, final long amount) {
+        if (enabled) {
+            counters[counter.ordinal()].add(amount);
+        }
+    }
+
+    public long get(final Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    public LatencyHistogram get(final Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    public LatencyHistogram getCheck(final ProtectionSource source) {
+        return checks[source.ordinal()];
+    }
+
+    public long getBlocked(final ProtectionSource source) {
+        return blocked[source.ordinal()].sum();
+    }
+
+    /**
+     * Returns when the metrics were last reset, in epoch millis.
+     */
+    public long getSinceMillis() {
+        return sinceMillis;
+    }
+
+    public void reset() {
+        for (final LongAdder counter : counters) {
+            counter.reset();
+        }
+        for (final LatencyHistogram stage : stages) {
+            stage.reset();
+        }
+        for (int i = 0; i < SOURCES.length; i++) {
+            checks[i].reset();
+            blocked[i].reset();
+        }
+        sinceMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes every counter and histogram as CSV, one metric per line.
+     *
+     * @param file The file
+     * @throws IOException If the file cannot be written
+     */
+    public void writeCsv(final Path file) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add("metric,count,blocked,mean_ns,p50_ns,p90_ns,p99_ns,max_ns,total_ns");
+
+        for (final Counter counter : Counter.values()) {
+            lines.add(counter.getKey() + "," + get(counter) + ",,,,,,,");
+        }
+        for (final Stage stage : Stage.values()) {
+            lines.add(csv(stage.getKey(), get(stage), ""));
+        }
+        for (final ProtectionSource source : SOURCES) {
+            lines.add(csv("check." + source.name().toLowerCase(Locale.ROOT), getCheck(source), String.valueOf(getBlocked(source))));
+        }
+
+        Files.createDirectories(file.getParent());
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    private static String csv(final String name, final LatencyHistogram histogram, final String blocked) {
+        return String.join(",", name, String.valueOf(histogram.getCount()), blocked,
+                String.valueOf(histogram.getMeanNanos()),
+                String.valueOf(histogram.getPercentileNanos(50)),
+                String.valueOf(histogram.getPercentileNanos(90)),
+                String.valueOf(histogram.getPercentileNanos(99)),
+                String.valueOf(histogram.getMaxNanos()),
+                String.valueOf(histogram.getTotalNanos()));
+    }
+
+    /**
+     * What is counted.
+     */
+    public enum Counter {
+        CYCLES("cycles"),
+        ATTEMPTS("attempts"),
+        ROLLS_PASSED("rollsPassed"),
+        SKIPPED_INELIGIBLE("skippedIneligible"),
+        BLOCKS_CHANGED("blocksChanged"),
+        BLOCKED_BY_MAINTENANCE("blockedByMaintenance"),
+        BLOCKED_BY_RAIL("blockedByRail"),
+        MUTATIONS_DROPPED("mutationsDropped");
+
+        private final String key;
+
+        Counter(final String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * What is timed.
+     */
+    public enum Stage {
+        PROCESS_PLAYERS("processPlayers"),
+        CHANCE_ROLL("chanceRoll"),
+        BLOCK_SWITCH("blockSwitcher");
+
+        private final String key;
+
+        Stage(final String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+}
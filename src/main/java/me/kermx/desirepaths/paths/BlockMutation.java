@@ -0,0 +1,90 @@
+package me.kermx.desirepaths.paths;
+
+import me.kermx.desirepaths.rules.BlockLayer;
+import me.kermx.desirepaths.rules.PathRules;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * A candidate block change that passed the chance roll and is
+ * waiting to be applied on the main thread. The block is stored
+ * as coordinates so no Bukkit state is touched off the main thread.
+ */
+public final class BlockMutation {
+    private final Player player;
+    private final UUID worldId;
+    private final int x;
+    private final int y;
+    private final int z;
+    private final BlockLayer layer;
+    private final PathRules rules;
+
+    /**
+     * Constructs the mutation.
+     *
+     * @param player  The player that caused the change
+     * @param worldId The UID of the world of the block
+     * @param x       Block x
+     * @param y       Block y
+     * @param z       Block z
+     * @param layer   The layer the block belongs to
+     * @param rules   The rules the chance was rolled with
+     */
+    public BlockMutation(final Player player, final UUID worldId, final int x, final int y, final int z,
+                         final BlockLayer layer, final PathRules rules) {
+        this.player = player;
+        this.worldId = worldId;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.layer = layer;
+        this.rules = rules;
+    }
+
+    /**
+     * Returns the key of the chunk the block is in, unique within a world.
+     */
+    public long getChunkKey() {
+        return chunkKey(x >> 4, z >> 4);
+    }
+
+    /**
+     * Packs chunk coordinates into a single long.
+     *
+     * @param chunkX Chunk x
+     * @param chunkZ Chunk z
+     * @return The key
+     */
+    public static long chunkKey(final int chunkX, final int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public BlockLayer getLayer() {
+        return layer;
+    }
+
+    public PathRules getRules() {
+        return rules;
+    }
+}
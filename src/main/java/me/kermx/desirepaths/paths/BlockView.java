@@ -0,0 +1,22 @@
+package me.kermx.desirepaths.paths;
+
+import java.util.UUID;
+
+/**
+ * A read-only view of which blocks may change, that can be queried off the
+ * main thread. It may be slightly out of date, but only in the direction of
+ * answering yes; the main thread checks the live block again.
+ */
+public interface BlockView {
+
+    /**
+     * Returns whether the block may have a transition.
+     *
+     * @param worldId The UID of the world
+     * @param x       Block x
+     * @param y       Block y
+     * @param z       Block z
+     * @return False only if the block certainly has none, true if the view does not know
+     */
+    boolean mayChange(UUID worldId, int x, int y, int z);
+}
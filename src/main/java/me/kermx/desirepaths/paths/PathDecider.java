@@ -0,0 +1,117 @@
+package me.kermx.desirepaths.paths;
+
+import me.kermx.desirepaths.rules.BlockLayer;
+import me.kermx.desirepaths.rules.MovementState;
+import me.kermx.desirepaths.rules.PathRules;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+
+import java.util.function.Consumer;
+
+/**
+ * Decides which blocks a player may change in one attempt. Only reads
+ * the snapshot and the rules, so it runs on any thread and without a
+ * server, which is what the benchmarks rely on.
+ * <p>
+ * With a {@link BlockView} a position is only passed on when its block
+ * may have a transition, so no main thread work is scheduled for blocks
+ * that can never change. Everything else, like rails above the block, is
+ * checked on the main thread as before.
+ */
+public class PathDecider {
+    private final Consumer<BlockMutation> sink;
+    private final WearTracker wearTracker;
+    private final BlockView blockView;
+    private final Runnable onIneligible;
+
+    /**
+     * Constructs the decider without an eligibility check.
+     *
+     * @param sink        Receives the mutations that passed the roll
+     * @param wearTracker Counts footsteps when the wear mode is on
+     */
+    public PathDecider(final Consumer<BlockMutation> sink, final WearTracker wearTracker) {
+        this(sink, wearTracker, null, () -> {});
+    }
+
+    /**
+     * Constructs the decider.
+     *
+     * @param sink         Receives the mutations that passed the roll
+     * @param wearTracker  Counts footsteps when the wear mode is on
+     * @param blockView    The blocks to check eligibility against, null to pass everything on
+     * @param onIneligible Called for every position skipped because its block cannot change
+     */
+    public PathDecider(final Consumer<BlockMutation> sink, final WearTracker wearTracker,
+                       final BlockView blockView, final Runnable onIneligible) {
+        this.sink = sink;
+        this.wearTracker = wearTracker;
+        this.blockView = blockView;
+        this.onIneligible = onIneligible;
+    }
+
+    /**
+     * Returns whether paths are never made under the given block, e.g. rails.
+     *
+     * @param type The type of the block above
+     * @return Is it a rail
+     */
+    public static boolean isRail(final Material type) {
+        return type == Material.RAIL || type == Material.POWERED_RAIL
+                || type == Material.ACTIVATOR_RAIL || type == Material.DETECTOR_RAIL;
+    }
+
+    /**
+     * Evaluates one attempt.
+     *
+     * @param snapshot  The snapshot of the player
+     * @param rules     The rules of the world of the player
+     * @param randomNum The roll, between 0 and 99, unused in wear mode
+     */
+    public void decide(final PlayerSnapshot snapshot, final PathRules rules, final int randomNum) {
+        if (snapshot.getGameMode() != GameMode.SURVIVAL && !rules.isCreativeModeAllowed()) {
+            return;
+        }
+        if (!rules.isEnabled() || snapshot.getY() % 1 != 0) {
+            return;
+        }
+
+        final MovementState state = MovementState.of(snapshot.isSprinting(), snapshot.isSneaking());
+        final int x = snapshot.getBlockX();
+        final int y = snapshot.getBlockY();
+        final int z = snapshot.getBlockZ();
+
+        final int environment = rules.getEnvironmentModifier(snapshot.isRaining(), snapshot.getBiome());
+        final int belowChance = rules.getChance(BlockLayer.BELOW, snapshot.getModifier(), state) + environment;
+        final int atFeetChance = rules.getChance(BlockLayer.AT_FEET, snapshot.getModifier(), state) + environment;
+
+        final boolean belowEligible = isEligible(snapshot, x, y - 1, z);
+        final boolean atFeetEligible = isEligible(snapshot, x, y, z);
+
+        if (rules.isWearEnabled()) {
+            // The chance is how much wear the step adds, blocks that cannot change are not tracked
+            if (belowEligible && wearTracker.step(snapshot.getWorldId(), x, y - 1, z, belowChance, rules.getWearThreshold())) {
+                sink.accept(new BlockMutation(snapshot.getPlayer(), snapshot.getWorldId(), x, y - 1, z, BlockLayer.BELOW, rules));
+            }
+            if (atFeetEligible && wearTracker.step(snapshot.getWorldId(), x, y, z, atFeetChance, rules.getWearThreshold())) {
+                sink.accept(new BlockMutation(snapshot.getPlayer(), snapshot.getWorldId(), x, y, z, BlockLayer.AT_FEET, rules));
+            }
+            return;
+        }
+
+        if (belowEligible && randomNum < belowChance) {
+            sink.accept(new BlockMutation(snapshot.getPlayer(), snapshot.getWorldId(), x, y - 1, z, BlockLayer.BELOW, rules));
+        }
+        if (atFeetEligible && randomNum < atFeetChance) {
+            sink.accept(new BlockMutation(snapshot.getPlayer(), snapshot.getWorldId(), x, y, z, BlockLayer.AT_FEET, rules));
+        }
+    }
+
+    private boolean isEligible(final PlayerSnapshot snapshot, final int x, final int y, final int z) {
+        if (blockView == null || blockView.mayChange(snapshot.getWorldId(), x, y, z)) {
+            return true;
+        }
+        onIneligible.run();
+        return false;
+    }
+}
@@ -0,0 +1,536 @@
+package me.kermx.desirepaths.paths;
+
+import me.kermx.desirepaths.schedulers.SchedulerAdapter;
+import me.kermx.desirepaths.schedulers.TimingWheel;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.Bisected;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.MultipleFacing;
+import org.bukkit.block.data.type.Bed;
+import org.bukkit.block.data.type.Chest;
+import org.bukkit.block.data.type.RedstoneWire;
+import org.bukkit.block.data.type.Stairs;
+import org.bukkit.block.data.type.Wall;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets untrafficked paths grow back. Every block the plugin changes is
+ * remembered together with what it was before; once nobody walked on it
+ * for the idle time of its current material it steps back one transition,
+ * e.g. DIRT_PATH to COARSE_DIRT to DIRT to GRASS_BLOCK, until it is back
+ * to what it was.
+ * <p>
+ * The waiting is done by a {@link TimingWheel} in seconds, so pending
+ * regrowths cost no scheduler tasks. Due blocks are reverted from a tick
+ * task within a time budget, and only in loaded chunks.
+ * <p>
+ * The idle times are days long by default, so the pending regrowths are
+ * saved to a file with {@link #save(Path)} and read back on start with
+ * {@link #load(Path)}. Idle times are counted in wall clock seconds, so
+ * they keep running while the server is down.
+ * <p>
+ * A revert only sets one block to the default data of its material, so
+ * blocks that are part of a multi-block structure or take their shape from
+ * their neighbours, e.g. tall grass, beds, fences or stairs, never grow
+ * back. Changes away from such a block are not remembered.
+ */
+public class PathRegrowth {
+    private static final Material[] MATERIALS = Material.values();
+    private static final int MAGIC = 0x44505247; // DPRG
+    private static final int VERSION = 1;
+    private static final boolean[] REVERTIBLE = revertible();
+
+    private SchedulerAdapter scheduler;
+    private RevertListener onRevert = (block, removedType, removedData, placedType) -> {};
+
+    private final Map<UUID, Map<Long, Regrowth>> worlds = new ConcurrentHashMap<>();
+    private final TimingWheel<Regrowth> wheel = new TimingWheel<>(currentSecond());
+
+    // Global thread only
+    private final ArrayDeque<Regrowth> due = new ArrayDeque<>();
+
+    private volatile int[] idleSeconds = new int[MATERIALS.length];
+    private volatile int maxTrackedBlocks;
+    private volatile long tickBudgetNanos;
+    private volatile boolean enabled;
+    private volatile boolean loaded;
+
+    /**
+     * Applies new settings, the pending regrowths are kept.
+     *
+     * @param enabled               Do paths grow back
+     * @param idleMinutes           The default idle time
+     * @param idleMinutesByMaterial The idle time per material of the path block, overriding the default
+     * @param maxTrackedBlocks      The maximum number of blocks waiting to grow back
+     * @param tickBudgetNanos       The time per tick spent on reverting blocks
+     */
+    public void configure(final boolean enabled, final int idleMinutes, final Map<Material, Integer> idleMinutesByMaterial,
+                          final int maxTrackedBlocks, final long tickBudgetNanos) {
+        final int[] seconds = new int[MATERIALS.length];
+        Arrays.fill(seconds, (int) TimeUnit.MINUTES.toSeconds(Math.max(1, idleMinutes)));
+
+        for (final Map.Entry<Material, Integer> entry : idleMinutesByMaterial.entrySet()) {
+            seconds[entry.getKey().ordinal()] = (int) TimeUnit.MINUTES.toSeconds(Math.max(1, entry.getValue()));
+        }
+
+        this.idleSeconds = seconds;
+        this.maxTrackedBlocks = Math.max(0, maxTrackedBlocks);
+        this.tickBudgetNanos = Math.max(1L, tickBudgetNanos);
+        this.enabled = enabled;
+
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Starts the tick task.
+     *
+     * @param scheduler The scheduler backend
+     * @param onRevert  Told about every reverted block, on the thread owning the block
+     */
+    public void start(final SchedulerAdapter scheduler, final RevertListener onRevert) {
+        this.scheduler = scheduler;
+        this.onRevert = onRevert;
+        scheduler.runRepeating(this::tick, 1L, 1L);
+    }
+
+    /**
+     * Remembers a block change so it can grow back later. Called on the
+     * thread owning the block, right after the change.
+     *
+     * @param block The block
+     * @param from  What it was
+     * @param to    What it is now
+     */
+    public void record(final Block block, final Material from, final Material to) {
+        if (!enabled) {
+            return;
+        }
+
+        final Map<Long, Regrowth> blocks = worlds.computeIfAbsent(block.getWorld().getUID(), id -> new ConcurrentHashMap<>());
+        final long key = WearMap.pack(block.getX(), block.getY(), block.getZ());
+
+        // Could not be put back whole, the block keeps its path from now on
+        if (!isRevertible(from)) {
+            blocks.remove(key);
+            return;
+        }
+
+        final Regrowth regrowth = blocks.get(key);
+
+        if (regrowth != null) {
+            // A path that got worn further, it grows back through every step
+            synchronized (regrowth) {
+                regrowth.push(from, to);
+            }
+            regrowth.touch(currentSecond(), idleSeconds[to.ordinal()]);
+            return;
+        }
+        if (blocks.size() >= maxTrackedBlocks) {
+            return;
+        }
+
+        final Regrowth created = new Regrowth(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ(), from, to);
+        created.touch(currentSecond(), idleSeconds[to.ordinal()]);
+        blocks.put(key, created);
+
+        synchronized (wheel) {
+            wheel.schedule(created, created.lastTouched + created.idle);
+        }
+    }
+
+    /**
+     * Returns whether a block can grow back into the material, i.e. a single
+     * block with the default data of the material is a complete block.
+     *
+     * @param type The material
+     */
+    public static boolean isRevertible(final Material type) {
+        return REVERTIBLE[type.ordinal()];
+    }
+
+    /**
+     * Restarts the idle time of the blocks the player stands in and on.
+     * Safe to call from any thread.
+     */
+    public void touch(final PlayerSnapshot snapshot) {
+        final Map<Long, Regrowth> blocks = worlds.get(snapshot.getWorldId());
+
+        if (blocks == null || blocks.isEmpty()) {
+            return;
+        }
+
+        final long now = currentSecond();
+        final int x = snapshot.getBlockX();
+        final int y = snapshot.getBlockY();
+        final int z = snapshot.getBlockZ();
+
+        Regrowth regrowth = blocks.get(WearMap.pack(x, y - 1, z));
+        if (regrowth != null) {
+            regrowth.lastTouched = now;
+        }
+        regrowth = blocks.get(WearMap.pack(x, y, z));
+        if (regrowth != null) {
+            regrowth.lastTouched = now;
+        }
+    }
+
+    /**
+     * Returns the number of blocks waiting to grow back.
+     */
+    public int getTrackedBlocks() {
+        int total = 0;
+
+        for (final Map<Long, Regrowth> blocks : worlds.values()) {
+            total += blocks.size();
+        }
+        return total;
+    }
+
+    /**
+     * Forgets every pending regrowth, the blocks stay as they are.
+     */
+    public void clear() {
+        // Entries still on the wheel find themselves forgotten when they expire
+        worlds.clear();
+    }
+
+    /**
+     * Returns whether {@link #load(Path)} finished, saving before that would
+     * replace the saved regrowths with the few recorded since start.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Reads the regrowths written by {@link #save(Path)} and schedules them.
+     * Blocks recorded since start win over saved ones. Meant to run off the
+     * main thread, once after {@link #start}.
+     *
+     * @param file The file, a missing file means nothing was saved
+     * @throws IOException If the file cannot be read, it is then never saved over
+     */
+    public synchronized void load(final Path file) throws IOException {
+        if (!Files.exists(file)) {
+            loaded = true;
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a regrowth file: " + file);
+            }
+
+            // Materials by name, ordinals change between versions
+            final Material[] palette = new Material[in.readInt()];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = Material.getMaterial(in.readUTF());
+            }
+
+            final int[] seconds = idleSeconds;
+            for (int worlds = in.readInt(); worlds > 0; worlds--) {
+                final UUID worldId = new UUID(in.readLong(), in.readLong());
+                final Map<Long, Regrowth> blocks = this.worlds.computeIfAbsent(worldId, id -> new ConcurrentHashMap<>());
+
+                for (int count = in.readInt(); count > 0; count--) {
+                    final int x = in.readInt();
+                    final int y = in.readInt();
+                    final int z = in.readInt();
+                    final long lastTouched = in.readLong();
+                    final Material[] history = new Material[in.readUnsignedShort()];
+                    boolean known = history.length >= 2;
+                    for (int i = 0; i < history.length; i++) {
+                        history[i] = palette[in.readUnsignedShort()];
+                        known &= history[i] != null;
+                    }
+
+                    if (!known || blocks.size() >= maxTrackedBlocks) {
+                        continue;
+                    }
+                    final Regrowth regrowth = new Regrowth(worldId, x, y, z, history);
+                    regrowth.touch(lastTouched, seconds[regrowth.current().ordinal()]);
+                    if (blocks.putIfAbsent(WearMap.pack(x, y, z), regrowth) == null) {
+                        reschedule(regrowth, lastTouched + regrowth.idle);
+                    }
+                }
+            }
+        }
+        loaded = true;
+    }
+
+    /**
+     * Writes every pending regrowth to the file, replacing it as a whole.
+     * Does nothing before {@link #load(Path)} finished. Safe to call from
+     * any thread.
+     *
+     * @param file The file
+     * @throws IOException If the file cannot be written
+     */
+    public synchronized void save(final Path file) throws IOException {
+        if (!loaded) {
+            return;
+        }
+
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.getParent());
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(MATERIALS.length);
+            for (final Material type : MATERIALS) {
+                out.writeUTF(type.name());
+            }
+
+            final List<Map.Entry<UUID, Map<Long, Regrowth>>> snapshot = new ArrayList<>(worlds.entrySet());
+            out.writeInt(snapshot.size());
+            for (final Map.Entry<UUID, Map<Long, Regrowth>> world : snapshot) {
+                final List<Regrowth> blocks = new ArrayList<>(world.getValue().values());
+                out.writeLong(world.getKey().getMostSignificantBits());
+                out.writeLong(world.getKey().getLeastSignificantBits());
+                out.writeInt(blocks.size());
+
+                for (final Regrowth regrowth : blocks) {
+                    out.writeInt(regrowth.x);
+                    out.writeInt(regrowth.y);
+                    out.writeInt(regrowth.z);
+                    out.writeLong(regrowth.lastTouched);
+                    synchronized (regrowth) {
+                        out.writeShort(regrowth.depth + 1);
+                        for (int i = 0; i <= regrowth.depth; i++) {
+                            out.writeShort(regrowth.history[i].ordinal());
+                        }
+                    }
+                }
+            }
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Global thread, every tick
+    private void tick() {
+        final long now = currentSecond();
+
+        synchronized (wheel) {
+            wheel.advance(now, due::add);
+        }
+
+        final long deadline = System.nanoTime() + tickBudgetNanos;
+        boolean dispatched = false;
+
+        // At least one block per tick, so a budget shorter than a revert still makes progress
+        while (!due.isEmpty() && (!dispatched || System.nanoTime() < deadline)) {
+            final Regrowth regrowth = due.poll();
+
+            if (!isTracked(regrowth)) {
+                continue;
+            }
+            // Walked on since it was scheduled, wait for a full idle time after the last step
+            if (regrowth.lastTouched + regrowth.idle > now) {
+                reschedule(regrowth, regrowth.lastTouched + regrowth.idle);
+                continue;
+            }
+            dispatch(regrowth);
+            dispatched = true;
+        }
+    }
+
+    private void dispatch(final Regrowth regrowth) {
+        final World world = Bukkit.getWorld(regrowth.worldId);
+
+        if (world == null) {
+            forget(regrowth);
+            return;
+        }
+        if (scheduler.isRegionThreaded()) {
+            scheduler.runAtChunk(world, regrowth.x >> 4, regrowth.z >> 4, () -> revert(world, regrowth));
+        } else {
+            revert(world, regrowth);
+        }
+    }
+
+    // Thread owning the block
+    private void revert(final World world, final Regrowth regrowth) {
+        final long now = currentSecond();
+
+        // Never load a chunk to grow a path back, try again once the idle time is over
+        if (!world.isChunkLoaded(regrowth.x >> 4, regrowth.z >> 4)) {
+            reschedule(regrowth, now + regrowth.idle);
+            return;
+        }
+
+        final Block block = world.getBlockAt(regrowth.x, regrowth.y, regrowth.z);
+
+        final Material removed;
+        final Material restored;
+        final boolean done;
+        synchronized (regrowth) {
+            removed = regrowth.current();
+            // Changed by something else in the meantime, leave it alone
+            if (block.getType() != removed) {
+                forget(regrowth);
+                return;
+            }
+            restored = regrowth.pop();
+            done = regrowth.depth == 0;
+        }
+
+        final BlockData removedData = block.getBlockData();
+        block.setType(restored);
+        onRevert.reverted(block, removed, removedData, restored);
+
+        if (done) {
+            forget(regrowth);
+            return;
+        }
+        regrowth.touch(now, idleSeconds[restored.ordinal()]);
+        reschedule(regrowth, now + regrowth.idle);
+    }
+
+    private void reschedule(final Regrowth regrowth, final long deadline) {
+        synchronized (wheel) {
+            wheel.schedule(regrowth, deadline);
+        }
+    }
+
+    private boolean isTracked(final Regrowth regrowth) {
+        final Map<Long, Regrowth> blocks = worlds.get(regrowth.worldId);
+        return blocks != null && blocks.get(WearMap.pack(regrowth.x, regrowth.y, regrowth.z)) == regrowth;
+    }
+
+    private void forget(final Regrowth regrowth) {
+        final Map<Long, Regrowth> blocks = worlds.get(regrowth.worldId);
+
+        if (blocks != null) {
+            blocks.remove(WearMap.pack(regrowth.x, regrowth.y, regrowth.z), regrowth);
+        }
+    }
+
+    private static long currentSecond() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+
+    private static boolean[] revertible() {
+        final boolean[] revertible = new boolean[MATERIALS.length];
+
+        for (final Material type : MATERIALS) {
+            if (!type.isBlock()) {
+                continue;
+            }
+            final BlockData data;
+            try {
+                data = type.createBlockData();
+            } catch (final IllegalArgumentException e) {
+                continue; // legacy materials
+            }
+            revertible[type.ordinal()] = !(data instanceof Bisected || data instanceof Bed || data instanceof Chest
+                    || data instanceof Stairs || data instanceof MultipleFacing || data instanceof Wall
+                    || data instanceof RedstoneWire);
+        }
+        return revertible;
+    }
+
+    /**
+     * Told about every block that grew back one step.
+     */
+    @FunctionalInterface
+    public interface RevertListener {
+        /**
+         * Called on the thread owning the block, right after the change.
+         *
+         * @param block       The block
+         * @param removedType The material before the change
+         * @param removedData The block data before the change
+         * @param placedType  The material the block grew back into
+         */
+        void reverted(Block block, Material removedType, BlockData removedData, Material placedType);
+    }
+
+    /**
+     * A changed block and the materials it went through, newest last.
+     * The history is changed on the thread owning the block and read by
+     * saves, both under the lock of the regrowth.
+     */
+    private static final class Regrowth extends TimingWheel.Timer {
+        private final UUID worldId;
+        private final int x;
+        private final int y;
+        private final int z;
+        private Material[] history = new Material[2];
+        private int depth;
+
+        private volatile long lastTouched;
+        private volatile int idle;
+
+        private Regrowth(final UUID worldId, final int x, final int y, final int z, final Material from, final Material to) {
+            this.worldId = worldId;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            history[0] = from;
+            history[1] = to;
+            depth = 1;
+        }
+
+        private Regrowth(final UUID worldId, final int x, final int y, final int z, final Material[] history) {
+            this.worldId = worldId;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.history = history;
+            this.depth = history.length - 1;
+        }
+
+        private Material current() {
+            return history[depth];
+        }
+
+        private void push(final Material from, final Material to) {
+            // Something else may have put the block back in between, start over from it
+            if (history[depth] != from) {
+                history[0] = from;
+                depth = 0;
+            }
+            if (depth + 1 == history.length) {
+                history = Arrays.copyOf(history, history.length * 2);
+            }
+            history[++depth] = to;
+        }
+
+        private Material pop() {
+            return history[--depth];
+        }
+
+        private void touch(final long now, final int idle) {
+            this.idle = idle;
+            this.lastTouched = now;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package me.kermx.desirepaths.paths;
+
+import me.kermx.desirepaths.rules.ModifierType;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.block.Biome;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * An immutable copy of everything the path attempt needs to know
+ * about a player. It is captured on the main thread and can then be
+ * read from any thread without touching live Bukkit state.
+ */
+public final class PlayerSnapshot {
+    private final Player player;
+    private final UUID playerId;
+    private final UUID worldId;
+    private final int worldIndex;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final int blockX;
+    private final int blockY;
+    private final int blockZ;
+    private final ModifierType modifier;
+    private final boolean sprinting;
+    private final boolean sneaking;
+    private final GameMode gameMode;
+    private final boolean raining;
+    private final Biome biome;
+
+    /**
+     * Constructs the snapshot. Use {@link #capture(Player, Location, int, ModifierType, boolean, Biome)}
+     * on the main thread.
+     *
+     * @param player     The player, only kept as a handle for the main thread
+     * @param playerId   The UUID of the player
+     * @param worldId    The UID of the world the player is in
+     * @param worldIndex The id DesirePaths gave the world, see WorldRules
+     * @param x          Exact x
+     * @param y          Exact y
+     * @param z          Exact z
+     * @param modifier   The chance modifier, resolved from the vehicle and boots
+     * @param sprinting  Is the player sprinting
+     * @param sneaking   Is the player sneaking
+     * @param gameMode   The game mode of the player
+     * @param raining    Is it raining in the world, see WeatherTracker
+     * @param biome      The biome the player is in, null if not needed, see BiomeCache
+     */
+    public PlayerSnapshot(final Player player, final UUID playerId, final UUID worldId, final int worldIndex,
+                          final double x, final double y, final double z,
+                          final ModifierType modifier, final boolean sprinting, final boolean sneaking,
+                          final GameMode gameMode, final boolean raining, final Biome biome) {
+        this.player = player;
+        this.playerId = playerId;
+        this.worldId = worldId;
+        this.worldIndex = worldIndex;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.blockX = Location.locToBlock(x);
+        this.blockY = Location.locToBlock(y);
+        this.blockZ = Location.locToBlock(z);
+        this.modifier = modifier;
+        this.sprinting = sprinting;
+        this.sneaking = sneaking;
+        this.gameMode = gameMode;
+        this.raining = raining;
+        this.biome = biome;
+    }
+
+    /**
+     * Copies the state of the player. Must be called on the main thread.
+     *
+     * @param player     The player
+     * @param location   The location of the player
+     * @param worldIndex The id of the world of the player, see WorldRules
+     * @param modifier   The chance modifier of the player, see ModifierCache
+     * @param raining    Is it raining in the world
+     * @param biome      The biome the player is in, null if not needed
+     * @return The snapshot
+     */
+    public static PlayerSnapshot capture(final Player player, final Location location, final int worldIndex,
+                                         final ModifierType modifier, final boolean raining, final Biome biome) {
+        return new PlayerSnapshot(
+                player,
+                player.getUniqueId(),
+                location.getWorld().getUID(),
+                worldIndex,
+                location.getX(),
+                location.getY(),
+                location.getZ(),
+                modifier,
+                player.isSprinting(),
+                player.isSneaking(),
+                player.getGameMode(),
+                raining,
+                biome
+        );
+    }
+
+    /**
+     * Returns the player. Only use it on the main thread.
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    public int getWorldIndex() {
+        return worldIndex;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public int getBlockX() {
+        return blockX;
+    }
+
+    public int getBlockY() {
+        return blockY;
+    }
+
+    public int getBlockZ() {
+        return blockZ;
+    }
+
+    public ModifierType getModifier() {
+        return modifier;
+    }
+
+    public boolean isSprinting() {
+        return sprinting;
+    }
+
+    public boolean isSneaking() {
+        return sneaking;
+    }
+
+    public GameMode getGameMode() {
+        return gameMode;
+    }
+
+    public boolean isRaining() {
+        return raining;
+    }
+
+    /**
+     * Returns the biome the player is in, null when the rules of the world have no biome modifiers.
+     */
+    public Biome getBiome() {
+        return biome;
+    }
+}
@@ -0,0 +1,273 @@
+package me.kermx.desirepaths.paths;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The wear of one region (32x32 chunks) in a memory-mapped file. The file
+ * is an open-addressing table, the same layout {@link WearMap} keeps in
+ * memory, so the mapping is the data and nothing is read up front:
+ * <pre>
+ * header  int magic, int version, int capacity, int size
+ * slots   capacity x (int key, int value)
+ * </pre>
+ * A key packs the local x and z (9 bits each) and y (12 bits), the value
+ * is a {@link WearMap} value. Writes only mark their 4 KB page dirty;
+ * {@link #takeDirtyRanges()} hands those pages to a background flush.
+ * <p>
+ * A mapped file cannot be replaced or truncated on every platform, so the
+ * table is rebuilt in place and the file only ever grows; a smaller table
+ * uses the start of it. While a rebuild runs the size in the header is -1,
+ * a file left like that by a crash is opened as an empty table.
+ * Not thread-safe, callers hold the lock of the owning store.
+ */
+final class RegionWearFile {
+    private static final int MAGIC = 0x44505752; // DPWR
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int SLOT = 8;
+    private static final int PAGE_SHIFT = 12;
+    private static final int MIN_CAPACITY = 1 << 12;
+    private static final int REBUILDING = -1;
+
+    private final Path path;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int size;
+    private final BitSet dirtyPages = new BitSet();
+
+    private RegionWearFile(final Path path, final MappedByteBuffer buffer, final int capacity, final int size) {
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.size = size;
+    }
+
+    /**
+     * Maps the region file, creating it if it does not exist yet.
+     *
+     * @param path The file
+     * @return The region file
+     * @throws IOException If the file cannot be mapped or is not a region file
+     */
+    static RegionWearFile open(final Path path) throws IOException {
+        if (Files.exists(path)) {
+            final MappedByteBuffer buffer = map(path, Files.size(path));
+
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a wear region file: " + path);
+            }
+            final RegionWearFile file = new RegionWearFile(path, buffer, buffer.getInt(8), buffer.getInt(12));
+            if (file.size == REBUILDING) {
+                file.reset(file.capacity);
+                file.commit(0);
+            }
+            return file;
+        }
+
+        Files.createDirectories(path.getParent());
+        final RegionWearFile file = new RegionWearFile(path, create(path, MIN_CAPACITY), MIN_CAPACITY, 0);
+        file.dirtyPages.set(0);
+        return file;
+    }
+
+    private static MappedByteBuffer map(final Path path, final long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+    }
+
+    private static MappedByteBuffer create(final Path path, final int capacity) throws IOException {
+        final MappedByteBuffer buffer = map(path, HEADER + (long) capacity * SLOT);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, capacity);
+        buffer.putInt(12, 0);
+        return buffer;
+    }
+
+    private static int localKey(final int x, final int y, final int z) {
+        return ((x & 0x1FF) << 21) | ((z & 0x1FF) << 12) | (y & 0xFFF);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * See {@link WearStore#addWear}. Returns false without tracking the block
+     * if it is new and the store is full.
+     */
+    boolean addWear(final int x, final int y, final int z, final int amount, final int epoch,
+                    final int threshold, final boolean mayGrow) throws IOException {
+        final int key = localKey(x, y, z);
+        int slot = find(key);
+
+        if (valueAt(slot) == 0) {
+            if (!mayGrow) {
+                return false;
+            }
+            if ((size + 1) * 4L > capacity * 3L) {
+                rebuild(capacity << 1, 0, 0);
+                slot = find(key);
+            }
+            write(slot, key, 0);
+            setSize(size + 1);
+        }
+
+        final int value = WearMap.step(valueAt(slot), amount, epoch, threshold);
+        write(slot, key, value);
+        return (value & WearMap.WEAR_MASK) == 0;
+    }
+
+    int getWear(final int x, final int y, final int z) {
+        return valueAt(find(localKey(x, y, z))) & WearMap.WEAR_MASK;
+    }
+
+    /**
+     * Drops the cold blocks by rebuilding the file, shrinking it if possible.
+     */
+    void evictCold(final int epoch, final int coldAfter) throws IOException {
+        int survivors = 0;
+
+        for (int slot = 0; slot < capacity; slot++) {
+            final int value = valueAt(slot);
+            if (value != 0 && !WearMap.isCold(value, epoch, coldAfter)) {
+                survivors++;
+            }
+        }
+        if (survivors == size) {
+            return;
+        }
+
+        int newCapacity = MIN_CAPACITY;
+        while (survivors * 4L > newCapacity * 3L) {
+            newCapacity <<= 1;
+        }
+        rebuild(newCapacity, epoch, coldAfter);
+    }
+
+    /**
+     * Returns the dirty parts of the mapping as tasks that write them out,
+     * and forgets them. The tasks may run without the lock.
+     */
+    List<Runnable> takeDirtyRanges() {
+        final List<Runnable> ranges = new ArrayList<>();
+        final MappedByteBuffer mapped = buffer;
+        final int limit = mapped.capacity();
+
+        for (int start = dirtyPages.nextSetBit(0); start >= 0; ) {
+            final int end = dirtyPages.nextClearBit(start);
+            final int from = start << PAGE_SHIFT;
+            final int length = Math.min(limit, end << PAGE_SHIFT) - from;
+
+            if (length > 0) {
+                ranges.add(() -> mapped.force(from, length));
+            }
+            start = dirtyPages.nextSetBit(end);
+        }
+        dirtyPages.clear();
+        return ranges;
+    }
+
+    /**
+     * Writes everything out.
+     */
+    void force() {
+        buffer.force();
+        dirtyPages.clear();
+    }
+
+    // Reinserts the live entries into a table of the given capacity, in the same file
+    private void rebuild(final int newCapacity, final int epoch, final int coldAfter) throws IOException {
+        final long[] entries = new long[size];
+        int live = 0;
+
+        for (int slot = 0; slot < capacity && live < entries.length; slot++) {
+            final int value = valueAt(slot);
+
+            if (value == 0 || (coldAfter > 0 && WearMap.isCold(value, epoch, coldAfter))) {
+                continue;
+            }
+            entries[live++] = ((long) buffer.getInt(HEADER + slot * SLOT) << 32) | (value & 0xFFFFFFFFL);
+        }
+
+        // From here until the commit the slots are inconsistent, a crash leaves an empty table behind
+        buffer.putInt(12, REBUILDING);
+        buffer.force(0, HEADER);
+
+        final long length = HEADER + (long) newCapacity * SLOT;
+        if (length > buffer.capacity()) {
+            // Growing the file is fine while it is mapped, the old mapping is left to the GC
+            buffer = map(path, length);
+        }
+        reset(newCapacity);
+
+        final int mask = newCapacity - 1;
+        for (int i = 0; i < live; i++) {
+            final int key = (int) (entries[i] >>> 32);
+            int slot = WearMap.mix(key) & mask;
+
+            while (valueAt(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            buffer.putInt(HEADER + slot * SLOT, key);
+            buffer.putInt(HEADER + slot * SLOT + 4, (int) entries[i]);
+        }
+        commit(live);
+    }
+
+    // Empties the slots of a table with the given capacity, leaving the size at REBUILDING
+    private void reset(final int newCapacity) {
+        for (int slot = 0; slot < newCapacity; slot++) {
+            buffer.putLong(HEADER + slot * SLOT, 0L);
+        }
+        buffer.putInt(8, newCapacity);
+        capacity = newCapacity;
+    }
+
+    // The slots are written out before the header, so the header never describes slots not on disk yet
+    private void commit(final int newSize) {
+        buffer.force(HEADER, capacity * SLOT);
+        buffer.putInt(12, newSize);
+        buffer.force(0, HEADER);
+        size = newSize;
+        dirtyPages.clear();
+    }
+
+    private int find(final int key) {
+        final int mask = capacity - 1;
+        int slot = WearMap.mix(key) & mask;
+
+        while (valueAt(slot) != 0 && buffer.getInt(HEADER + slot * SLOT) != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int valueAt(final int slot) {
+        return buffer.getInt(HEADER + slot * SLOT + 4);
+    }
+
+    private void write(final int slot, final int key, final int value) {
+        final int offset = HEADER + slot * SLOT;
+        buffer.putInt(offset, key);
+        buffer.putInt(offset + 4, value);
+        dirtyPages.set(offset >>> PAGE_SHIFT);
+    }
+
+    private void setSize(final int newSize) {
+        size = newSize;
+        buffer.putInt(12, newSize);
+        dirtyPages.set(0);
+    }
+}
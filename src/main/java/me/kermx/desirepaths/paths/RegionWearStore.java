@@ -0,0 +1,155 @@
+package me.kermx.desirepaths.paths;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The wear of one world, persisted as one memory-mapped {@link RegionWearFile}
+ * per region (32x32 chunks). A region is only mapped once one of its
+ * chunks loads or someone steps in it, so startup does not depend on
+ * how much of the map has wear, and released again once all of its
+ * chunks unloaded.
+ */
+final class RegionWearStore implements WearStore {
+    private final Path directory;
+    private final Logger logger;
+
+    private final Map<Long, RegionWearFile> regions = new HashMap<>();
+    private final Set<Long> loadedRegions = ConcurrentHashMap.newKeySet();
+    private int size;
+
+    /**
+     * Constructs the store.
+     *
+     * @param directory The directory of the region files of this world
+     * @param logger    The logger
+     */
+    RegionWearStore(final Path directory, final Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+    }
+
+    private static long regionKey(final int regionX, final int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns whether the region is mapped. Safe to call without the lock.
+     */
+    boolean isLoaded(final int regionX, final int regionZ) {
+        return loadedRegions.contains(regionKey(regionX, regionZ));
+    }
+
+    /**
+     * Maps the region, if not mapped yet.
+     *
+     * @return The region file, null if it could not be mapped
+     */
+    RegionWearFile region(final int regionX, final int regionZ) {
+        final long key = regionKey(regionX, regionZ);
+        RegionWearFile region = regions.get(key);
+
+        if (region == null) {
+            try {
+                region = RegionWearFile.open(directory.resolve("r." + regionX + "." + regionZ + ".dpw"));
+            } catch (final IOException e) {
+                logger.log(Level.WARNING, "Could not open wear region " + regionX + "," + regionZ, e);
+                return null;
+            }
+            regions.put(key, region);
+            loadedRegions.add(key);
+            size += region.size();
+        }
+        return region;
+    }
+
+    /**
+     * Writes the region out and releases it, if mapped. It is mapped again
+     * the next time it is needed.
+     */
+    void unload(final int regionX, final int regionZ) {
+        final long key = regionKey(regionX, regionZ);
+        final RegionWearFile region = regions.remove(key);
+
+        if (region != null) {
+            loadedRegions.remove(key);
+            size -= region.size();
+            region.force();
+        }
+    }
+
+    @Override
+    public boolean addWear(final int x, final int y, final int z, final int amount, final int epoch,
+                           final int threshold, final int maxSize) {
+        final RegionWearFile region = region(x >> 9, z >> 9);
+
+        if (region == null) {
+            return false;
+        }
+
+        final int before = region.size();
+        try {
+            return region.addWear(x, y, z, amount, epoch, threshold, size < maxSize);
+        } catch (final IOException e) {
+            logger.log(Level.WARNING, "Could not grow wear region " + (x >> 9) + "," + (z >> 9), e);
+            return false;
+        } finally {
+            size += region.size() - before;
+        }
+    }
+
+    @Override
+    public int getWear(final int x, final int y, final int z) {
+        final RegionWearFile region = region(x >> 9, z >> 9);
+        return region == null ? 0 : region.getWear(x, y, z);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void evictCold(final int epoch, final int coldAfter) {
+        size = 0;
+
+        for (final RegionWearFile region : regions.values()) {
+            try {
+                region.evictCold(epoch, coldAfter);
+            } catch (final IOException e) {
+                logger.log(Level.WARNING, "Could not evict cold wear", e);
+            }
+            size += region.size();
+        }
+    }
+
+    /**
+     * Collects the dirty pages of every region, see {@link RegionWearFile#takeDirtyRanges()}.
+     */
+    List<Runnable> takeDirtyRanges() {
+        final List<Runnable> ranges = new ArrayList<>();
+
+        for (final RegionWearFile region : regions.values()) {
+            ranges.addAll(region.takeDirtyRanges());
+        }
+        return ranges;
+    }
+
+    @Override
+    public void close() {
+        for (final RegionWearFile region : regions.values()) {
+            region.force();
+        }
+        regions.clear();
+        loadedRegions.clear();
+        size = 0;
+    }
+}
@@ -0,0 +1,155 @@
+package me.kermx.desirepaths.paths;
+
+/**
+ * An open-addressing map from packed block positions to wear, without
+ * boxing. Keys are stored in a long[] and every value is a single int:
+ * <pre>
+ * bit 31     present
+ * bits 16-30 epoch of the last step, in minutes, wrapping
+ * bits 0-15  accumulated wear
+ * </pre>
+ * so a tracked block costs 12 bytes plus the free slots. Not thread-safe.
+ * Lives in memory only, see {@link RegionWearStore} for the persisted store.
+ */
+final class WearMap implements WearStore {
+    static final int PRESENT = 1 << 31;
+    static final int EPOCH_MASK = 0x7FFF;
+    static final int WEAR_MASK = 0xFFFF;
+    private static final int MIN_CAPACITY = 1 << 10;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    WearMap() {
+        keys = new long[MIN_CAPACITY];
+        values = new int[MIN_CAPACITY];
+    }
+
+    /**
+     * Packs block coordinates into a key: 26 bits x, 26 bits z, 12 bits y.
+     */
+    static long pack(final int x, final int y, final int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean addWear(final int x, final int y, final int z, final int amount, final int epoch,
+                           final int threshold, final int maxSize) {
+        final long key = pack(x, y, z);
+        int slot = find(key);
+
+        if (values[slot] == 0) {
+            if (size >= maxSize) {
+                return false;
+            }
+            if ((size + 1) * 4L > keys.length * 3L) {
+                resize(keys.length << 1);
+                slot = find(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+
+        final int value = step(values[slot], amount, epoch, threshold);
+        values[slot] = value;
+        return (value & WEAR_MASK) == 0;
+    }
+
+    /**
+     * Returns the value after a step of the given wear, with the wear reset
+     * to zero if it reached the threshold.
+     */
+    static int step(final int value, final int amount, final int epoch, final int threshold) {
+        final int wear = Math.min(WEAR_MASK, (value & WEAR_MASK) + amount);
+        return PRESENT | ((epoch & EPOCH_MASK) << 16) | (wear >= threshold ? 0 : wear);
+    }
+
+    @Override
+    public int getWear(final int x, final int y, final int z) {
+        return values[find(pack(x, y, z))] & WEAR_MASK;
+    }
+
+    /**
+     * Rebuilds the table, which also shrinks it after a busy period.
+     */
+    @Override
+    public void evictCold(final int epoch, final int coldAfter) {
+        int survivors = 0;
+
+        for (final int value : values) {
+            if (value != 0 && !isCold(value, epoch, coldAfter)) {
+                survivors++;
+            }
+        }
+
+        int capacity = MIN_CAPACITY;
+        while (survivors * 4L > capacity * 3L) {
+            capacity <<= 1;
+        }
+
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0 && !isCold(oldValues[i], epoch, coldAfter)) {
+                final int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        keys = new long[MIN_CAPACITY];
+        values = new int[MIN_CAPACITY];
+        size = 0;
+    }
+
+    static boolean isCold(final int value, final int epoch, final int coldAfter) {
+        final int lastEpoch = (value >>> 16) & EPOCH_MASK;
+        return ((epoch - lastEpoch) & EPOCH_MASK) >= coldAfter;
+    }
+
+    private void resize(final int capacity) {
+        final long[] oldKeys = keys;
+        final int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                final int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Linear probing, returns the slot of the key or the free slot it belongs in
+    private int find(final long key) {
+        final int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+
+        while (values[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    static int mix(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+}
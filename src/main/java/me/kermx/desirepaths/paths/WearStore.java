@@ -0,0 +1,45 @@
+package me.kermx.desirepaths.paths;
+
+/**
+ * Where the wear of one world is kept. Callers hold the lock of the store.
+ */
+interface WearStore {
+
+    /**
+     * Adds wear to the block. If the wear reaches the threshold it is reset to
+     * zero and true is returned, meaning the block should transition.
+     *
+     * @param x         Block x
+     * @param y         Block y
+     * @param z         Block z
+     * @param amount    The wear to add
+     * @param epoch     The current epoch
+     * @param threshold The wear needed for a transition
+     * @param maxSize   New blocks are not tracked once the store holds this many
+     * @return Did the block cross the threshold
+     */
+    boolean addWear(int x, int y, int z, int amount, int epoch, int threshold, int maxSize);
+
+    /**
+     * Returns the wear of the block, 0 if not tracked.
+     */
+    int getWear(int x, int y, int z);
+
+    /**
+     * Returns the number of tracked blocks.
+     */
+    int size();
+
+    /**
+     * Drops every block nobody stepped on for the given number of epochs.
+     *
+     * @param epoch     The current epoch
+     * @param coldAfter Epochs without a step after which a block is dropped
+     */
+    void evictCold(int epoch, int coldAfter);
+
+    /**
+     * Makes sure everything is written out and releases the store.
+     */
+    void close();
+}
@@ -0,0 +1,236 @@
+package me.kermx.desirepaths.paths;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Counts footsteps per block for the wear mode. Instead of one dice roll
+ * per attempt, every step adds wear to the block and the block only
+ * transitions once its wear crosses the threshold, so a well-trodden
+ * trail turns into a path and a single passer-by does not.
+ * <p>
+ * There is one {@link WearStore} per world, in memory or persisted in
+ * memory-mapped region files. Each is guarded by its own lock since, on
+ * a region-threaded server, several threads add wear at once.
+ */
+public class WearTracker {
+    /**
+     * The highest usable threshold, wear is counted in 16 bits and stops there.
+     */
+    public static final int MAX_THRESHOLD = WearMap.WEAR_MASK;
+
+    private final Map<UUID, WearStore> worlds = new ConcurrentHashMap<>();
+    private final Path storageDirectory;
+    private final Logger logger;
+
+    private volatile int coldAfterMinutes;
+    private volatile int maxTrackedBlocks;
+
+    /**
+     * Constructs a tracker that keeps the wear in memory only.
+     *
+     * @param coldAfterMinutes Blocks nobody stepped on for this long are forgotten
+     * @param maxTrackedBlocks The maximum number of blocks tracked per world
+     */
+    public WearTracker(final int coldAfterMinutes, final int maxTrackedBlocks) {
+        this(coldAfterMinutes, maxTrackedBlocks, null, null);
+    }
+
+    /**
+     * Constructs the tracker.
+     *
+     * @param coldAfterMinutes Blocks nobody stepped on for this long are forgotten
+     * @param maxTrackedBlocks The maximum number of blocks tracked per world
+     * @param storageDirectory Where the region files go, null to keep the wear in memory only
+     * @param logger           The logger, only used with a storage directory
+     */
+    public WearTracker(final int coldAfterMinutes, final int maxTrackedBlocks, final Path storageDirectory,
+                       final Logger logger) {
+        this.storageDirectory = storageDirectory;
+        this.logger = logger;
+        configure(coldAfterMinutes, maxTrackedBlocks);
+    }
+
+    /**
+     * Applies new settings, the tracked wear is kept.
+     *
+     * @param coldAfterMinutes Blocks nobody stepped on for this long are forgotten
+     * @param maxTrackedBlocks The maximum number of blocks tracked per world
+     */
+    public void configure(final int coldAfterMinutes, final int maxTrackedBlocks) {
+        // Epochs wrap after 15 bits of minutes
+        this.coldAfterMinutes = Math.max(1, Math.min(0x7FFF, coldAfterMinutes));
+        this.maxTrackedBlocks = Math.max(0, maxTrackedBlocks);
+    }
+
+    private WearStore store(final UUID worldId) {
+        return worlds.computeIfAbsent(worldId, id -> storageDirectory == null
+                ? new WearMap()
+                : new RegionWearStore(storageDirectory.resolve(id.toString()), logger));
+    }
+
+    /**
+     * Adds wear to the block.
+     *
+     * @param worldId   The UID of the world
+     * @param x         Block x
+     * @param y         Block y
+     * @param z         Block z
+     * @param amount    The wear this step adds
+     * @param threshold The wear needed for a transition
+     * @return Should the block transition now
+     */
+    public boolean step(final UUID worldId, final int x, final int y, final int z, final int amount, final int threshold) {
+        if (amount <= 0) {
+            return false;
+        }
+
+        final WearStore store = store(worldId);
+
+        synchronized (store) {
+            return store.addWear(x, y, z, amount, currentEpoch(), threshold, maxTrackedBlocks);
+        }
+    }
+
+    /**
+     * Returns the wear of the block, 0 if not tracked.
+     */
+    public int getWear(final UUID worldId, final int x, final int y, final int z) {
+        final WearStore store = worlds.get(worldId);
+
+        if (store == null) {
+            return 0;
+        }
+        synchronized (store) {
+            return store.getWear(x, y, z);
+        }
+    }
+
+    /**
+     * Returns whether the region of the chunk still has to be mapped.
+     * Cheap and lock-free, meant for the chunk load listener.
+     */
+    public boolean needsPreload(final UUID worldId, final int chunkX, final int chunkZ) {
+        if (storageDirectory == null) {
+            return false;
+        }
+        final WearStore store = worlds.get(worldId);
+        return !(store instanceof RegionWearStore) || !((RegionWearStore) store).isLoaded(chunkX >> 5, chunkZ >> 5);
+    }
+
+    /**
+     * Maps the region of the chunk ahead of the first step in it.
+     * Meant to run off the main thread.
+     */
+    public void preload(final UUID worldId, final int chunkX, final int chunkZ) {
+        if (storageDirectory == null) {
+            return;
+        }
+        final WearStore store = store(worldId);
+
+        synchronized (store) {
+            ((RegionWearStore) store).region(chunkX >> 5, chunkZ >> 5);
+        }
+    }
+
+    /**
+     * Writes the region of the chunk out and releases it, e.g. once none of
+     * its chunks are loaded anymore. Meant to run off the main thread.
+     */
+    public void unloadRegion(final UUID worldId, final int chunkX, final int chunkZ) {
+        final WearStore store = worlds.get(worldId);
+
+        if (store instanceof RegionWearStore) {
+            synchronized (store) {
+                ((RegionWearStore) store).unload(chunkX >> 5, chunkZ >> 5);
+            }
+        }
+    }
+
+    /**
+     * Writes the wear of the world out and releases it, e.g. when the world unloads.
+     * Meant to run off the main thread.
+     */
+    public void unloadWorld(final UUID worldId) {
+        final WearStore store = worlds.get(worldId);
+
+        // Wear kept in memory only would be lost
+        if (store instanceof RegionWearStore && worlds.remove(worldId, store)) {
+            synchronized (store) {
+                store.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the pages changed since the last flush to disk. Only the page
+     * list is taken under the lock, the writing itself does not block steps.
+     * Meant to run off the main thread.
+     */
+    public void flush() {
+        final List<Runnable> ranges = new ArrayList<>();
+
+        for (final WearStore store : worlds.values()) {
+            if (store instanceof RegionWearStore) {
+                synchronized (store) {
+                    ranges.addAll(((RegionWearStore) store).takeDirtyRanges());
+                }
+            }
+        }
+        for (final Runnable range : ranges) {
+            range.run();
+        }
+    }
+
+    /**
+     * Returns the number of tracked blocks over all worlds.
+     */
+    public long getTrackedBlocks() {
+        long total = 0;
+
+        for (final WearStore store : worlds.values()) {
+            synchronized (store) {
+                total += store.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Forgets the blocks nobody stepped on for coldAfterMinutes. Meant to
+     * run off the main thread since it rebuilds the tables.
+     */
+    public void evictCold() {
+        final int epoch = currentEpoch();
+
+        for (final WearStore store : worlds.values()) {
+            synchronized (store) {
+                store.evictCold(epoch, coldAfterMinutes);
+            }
+        }
+    }
+
+    /**
+     * Writes everything out and releases every world, e.g. on disable
+     * or when the wear mode is turned off. Persisted wear stays on disk.
+     */
+    public void clear() {
+        for (final WearStore store : worlds.values()) {
+            synchronized (store) {
+                store.close();
+            }
+        }
+        worlds.clear();
+    }
+
+    // Wall clock minutes, so epochs stored in region files survive a restart
+    private static int currentEpoch() {
+        return (int) TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,38 @@
+package me.kermx.desirepaths.rules;
+
+/**
+ * The two layers of blocks DesirePaths modifies.
+ */
+public enum BlockLayer {
+    AT_FEET("blockModifications.blockAtFeetModifications", "BLOCK_AT_FEET"),
+    BELOW("blockModifications.blockBelowModifications", "BLOCK_BELOW");
+
+    private final String configPath;
+    private final String additiveSuffix;
+
+    BlockLayer(final String configPath, final String additiveSuffix) {
+        this.configPath = configPath;
+        this.additiveSuffix = additiveSuffix;
+    }
+
+    /**
+     * Returns the config.yml path of the transitions list of this layer.
+     */
+    public String getConfigPath() {
+        return configPath;
+    }
+
+    /**
+     * Returns the additiveModifiers key for the given movement state,
+     * e.g. SPRINTING_BLOCK_BELOW. Walking has no additive modifier.
+     *
+     * @param state The movement state
+     * @return The key, null if the state has no additive modifier
+     */
+    public String getAdditiveKey(final MovementState state) {
+        if (state == MovementState.WALKING) {
+            return null;
+        }
+        return state.name() + "_" + additiveSuffix;
+    }
+}
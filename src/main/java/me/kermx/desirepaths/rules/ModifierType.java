@@ -0,0 +1,66 @@
+package me.kermx.desirepaths.rules;
+
+import org.bukkit.Material;
+import org.bukkit.entity.AbstractHorse;
+import org.bukkit.entity.Boat;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Pig;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The chance modifier that applies to a player, named after
+ * the keys of the chanceModifiers section of config.yml.
+ */
+public enum ModifierType {
+    RIDING_HORSE,
+    RIDING_BOAT,
+    RIDING_PIG,
+    FEATHER_FALLING,
+    HAS_BOOTS,
+    LEATHER_BOOTS,
+    NO_BOOTS;
+
+    private static final Set<Material> HARD_BOOTS = EnumSet.of(Material.CHAINMAIL_BOOTS, Material.IRON_BOOTS,
+            Material.GOLDEN_BOOTS, Material.DIAMOND_BOOTS, Material.NETHERITE_BOOTS);
+
+    /**
+     * Returns the modifier for the given vehicle and boots. Pure, so
+     * it can be called from any thread.
+     *
+     * @param vehicleType    The type of the vehicle, null if not riding
+     * @param bootsMaterial  The material in the boots slot, null if empty
+     * @param featherFalling Do the boots have feather falling
+     * @return The modifier
+     */
+    public static ModifierType of(final EntityType vehicleType, final Material bootsMaterial, final boolean featherFalling) {
+        if (isVehicle(vehicleType, AbstractHorse.class)) {
+            return RIDING_HORSE;
+        }
+        if (isVehicle(vehicleType, Boat.class)) {
+            return RIDING_BOAT;
+        }
+        if (isVehicle(vehicleType, Pig.class)) {
+            return RIDING_PIG;
+        }
+        if (bootsMaterial == null) {
+            return NO_BOOTS;
+        }
+        if (bootsMaterial == Material.LEATHER_BOOTS) {
+            return featherFalling ? FEATHER_FALLING : LEATHER_BOOTS;
+        }
+        if (HARD_BOOTS.contains(bootsMaterial)) {
+            return featherFalling ? FEATHER_FALLING : HAS_BOOTS;
+        }
+        return NO_BOOTS;
+    }
+
+    private static boolean isVehicle(final EntityType vehicleType, final Class<? extends Entity> vehicleClass) {
+        if (vehicleType == null || vehicleType.getEntityClass() == null) {
+            return false;
+        }
+        return vehicleClass.isAssignableFrom(vehicleType.getEntityClass());
+    }
+}
@@ -0,0 +1,25 @@
+package me.kermx.desirepaths.rules;
+
+/**
+ * How the player is moving, used to pick the additive
+ * modifier that is added on top of the chance modifier.
+ */
+public enum MovementState {
+    WALKING,
+    SPRINTING,
+    CROUCHING;
+
+    /**
+     * Returns the movement state for the given flags.
+     *
+     * @param sprinting Is the player sprinting
+     * @param sneaking  Is the player sneaking
+     * @return The movement state
+     */
+    public static MovementState of(final boolean sprinting, final boolean sneaking) {
+        if (sneaking) {
+            return CROUCHING;
+        }
+        return sprinting ? SPRINTING : WALKING;
+    }
+}
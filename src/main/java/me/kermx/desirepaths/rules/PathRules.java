@@ -0,0 +1,210 @@
+package me.kermx.desirepaths.rules;
+
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+
+import java.util.Map;
+
+/**
+ * An immutable, compiled view of the path settings of config.yml.
+ * <p>
+ * Everything the path attempt needs is resolved once when the config
+ * is loaded, so the hot path only does array lookups. On reload a new
+ * instance is built and swapped in as a whole, so an attempt never sees
+ * half of an old config and half of a new one.
+ * <p>
+ * Every world profile of config.yml compiles into its own instance,
+ * see {@link WorldRules} for how the one of a world is found.
+ */
+public final class PathRules {
+    private static final Material[] MATERIALS = Material.values();
+    private static final Biome[] BIOMES = Biome.values();
+    private static final int LAYERS = BlockLayer.values().length;
+    private static final int MODIFIERS = ModifierType.values().length;
+    private static final int STATES = MovementState.values().length;
+
+    private final Material[][] transitions; // [layer][source ordinal] -> target, null if none
+    private final boolean[][] physics; // [layer][source ordinal] -> does the transition update neighbours
+    private final int[] chances; // [layer][modifier][state] flattened
+    private final int clearWeatherModifier;
+    private final int rainWeatherModifier;
+    private final int[] biomeModifiers; // [biome ordinal], null if none is set
+    private final boolean enabled;
+    private final int attemptFrequency;
+    private final boolean creativeModeAllowed;
+    private final boolean logPathsToCoreProtect;
+    private final boolean wearEnabled;
+    private final int wearThreshold;
+
+    /**
+     * Compiles the rules.
+     *
+     * @param transitions           The source to target materials of each layer
+     * @param chanceModifiers       The chanceModifiers section, missing keys count as 0
+     * @param additiveModifiers     The additiveModifiers section, missing keys count as 0
+     * @param biomeModifiers        The biomeModifiers section, by biome name, missing biomes count as 0
+     * @param enabled               Are paths made at all
+     * @param attemptFrequency      Ticks between attempts, 0 to use the global attemptFrequency
+     * @param creativeModeAllowed   Are paths created by players not in survival
+     * @param logPathsToCoreProtect Are path changes logged to CoreProtect
+     * @param wearEnabled           Do blocks transition on accumulated wear instead of a dice roll
+     * @param wearThreshold         The wear needed for a transition in wear mode
+     * @param alwaysPhysics         Do all transitions update their neighbours
+     * @param physicsTransitions    The source to target materials that update their neighbours
+     */
+    public PathRules(final Map<BlockLayer, Map<Material, Material>> transitions,
+                     final Map<String, Integer> chanceModifiers,
+                     final Map<String, Integer> additiveModifiers,
+                     final Map<String, Integer> biomeModifiers,
+                     final boolean enabled,
+                     final int attemptFrequency,
+                     final boolean creativeModeAllowed,
+                     final boolean logPathsToCoreProtect,
+                     final boolean wearEnabled,
+                     final int wearThreshold,
+                     final boolean alwaysPhysics,
+                     final Map<Material, Material> physicsTransitions) {
+        this.transitions = new Material[LAYERS][];
+        this.physics = new boolean[LAYERS][];
+        this.chances = new int[LAYERS * MODIFIERS * STATES];
+
+        for (final BlockLayer layer : BlockLayer.values()) {
+            final Material[] table = new Material[MATERIALS.length];
+            final boolean[] physicsTable = new boolean[MATERIALS.length];
+            final Map<Material, Material> layerTransitions = transitions.get(layer);
+
+            if (layerTransitions != null) {
+                for (final Map.Entry<Material, Material> entry : layerTransitions.entrySet()) {
+                    table[entry.getKey().ordinal()] = entry.getValue();
+                    physicsTable[entry.getKey().ordinal()] = alwaysPhysics
+                            || needsPhysics(entry.getValue())
+                            || entry.getValue() == physicsTransitions.get(entry.getKey());
+                }
+            }
+            this.transitions[layer.ordinal()] = table;
+            this.physics[layer.ordinal()] = physicsTable;
+
+            for (final ModifierType modifier : ModifierType.values()) {
+                final int base = chanceModifiers.getOrDefault(modifier.name(), 0);
+
+                for (final MovementState state : MovementState.values()) {
+                    final String additiveKey = layer.getAdditiveKey(state);
+                    final int additive = additiveKey == null ? 0 : additiveModifiers.getOrDefault(additiveKey, 0);
+                    chances[index(layer, modifier, state)] = base + additive;
+                }
+            }
+        }
+
+        this.clearWeatherModifier = additiveModifiers.getOrDefault("CLEAR_WEATHER", 0);
+        this.rainWeatherModifier = additiveModifiers.getOrDefault("RAIN_WEATHER", 0);
+        this.biomeModifiers = compileBiomeModifiers(biomeModifiers);
+        this.enabled = enabled;
+        this.attemptFrequency = Math.max(0, attemptFrequency);
+        this.creativeModeAllowed = creativeModeAllowed;
+        this.logPathsToCoreProtect = logPathsToCoreProtect;
+        this.wearEnabled = wearEnabled;
+        this.wearThreshold = Math.max(1, wearThreshold);
+    }
+
+    // Liquids have to start flowing and falling blocks have to fall
+    private static boolean needsPhysics(final Material target) {
+        return target == Material.WATER || target == Material.LAVA || target.hasGravity();
+    }
+
+    private static int[] compileBiomeModifiers(final Map<String, Integer> biomeModifiers) {
+        if (biomeModifiers.isEmpty()) {
+            return null;
+        }
+
+        final int[] table = new int[BIOMES.length];
+        for (final Biome biome : BIOMES) {
+            table[biome.ordinal()] = biomeModifiers.getOrDefault(biome.name(), 0);
+        }
+        return table;
+    }
+
+    private static int index(final BlockLayer layer, final ModifierType modifier, final MovementState state) {
+        return (layer.ordinal() * MODIFIERS + modifier.ordinal()) * STATES + state.ordinal();
+    }
+
+    /**
+     * Returns what the given material turns into on the given layer.
+     *
+     * @param layer  The layer
+     * @param source The current material of the block
+     * @return The target material, null if the material has no transition
+     */
+    public Material getTransition(final BlockLayer layer, final Material source) {
+        return transitions[layer.ordinal()][source.ordinal()];
+    }
+
+    /**
+     * Returns whether the transition of the given material has to update its neighbours.
+     * Most do not, e.g. GRASS_BLOCK:DIRT, and skip the physics update when applied.
+     *
+     * @param layer  The layer
+     * @param source The current material of the block
+     * @return Does it need physics
+     */
+    public boolean isPhysicsNeeded(final BlockLayer layer, final Material source) {
+        return physics[layer.ordinal()][source.ordinal()];
+    }
+
+    /**
+     * Returns the chance out of 100, with the additive modifier already applied.
+     *
+     * @param layer    The layer
+     * @param modifier The chance modifier of the player
+     * @param state    The movement state of the player
+     * @return The chance, may be below 0 or above 100
+     */
+    public int getChance(final BlockLayer layer, final ModifierType modifier, final MovementState state) {
+        return chances[index(layer, modifier, state)];
+    }
+
+    /**
+     * Returns what the weather and the biome add to the chance of both layers.
+     *
+     * @param raining Is it raining in the world
+     * @param biome   The biome the player is in, null if unknown
+     * @return The additive modifier
+     */
+    public int getEnvironmentModifier(final boolean raining, final Biome biome) {
+        final int weather = raining ? rainWeatherModifier : clearWeatherModifier;
+        return biomeModifiers == null || biome == null ? weather : weather + biomeModifiers[biome.ordinal()];
+    }
+
+    /**
+     * Returns whether any biome has a modifier, so the biome of a player is only looked up when it matters.
+     */
+    public boolean hasBiomeModifiers() {
+        return biomeModifiers != null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the ticks between attempts, 0 if the global attemptFrequency applies.
+     */
+    public int getAttemptFrequency() {
+        return attemptFrequency;
+    }
+
+    public boolean isCreativeModeAllowed() {
+        return creativeModeAllowed;
+    }
+
+    public boolean isLogPathsToCoreProtect() {
+        return logPathsToCoreProtect;
+    }
+
+    public boolean isWearEnabled() {
+        return wearEnabled;
+    }
+
+    public int getWearThreshold() {
+        return wearThreshold;
+    }
+}
@@ -0,0 +1,89 @@
+package me.kermx.desirepaths.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The path rules of every world, in an array indexed by a small id that
+ * DesirePaths gives each world when it loads. The id is looked up once
+ * when a player is captured and travels with the snapshot, so resolving
+ * the rules of an attempt is a single array read.
+ * <p>
+ * Ids are never reused, a world that unloads and loads again keeps its id.
+ * On reload the array is rebuilt from the new config and swapped as a whole.
+ */
+public final class WorldRules {
+    private final Map<UUID, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>(); // by id
+
+    private volatile PathRules[] rules = new PathRules[0];
+    private volatile PathRules defaultRules;
+    private Function<String, PathRules> rulesByWorldName;
+
+    /**
+     * Applies a newly loaded config.
+     *
+     * @param defaultRules     The rules of worlds without a profile
+     * @param rulesByWorldName Resolves the rules of a world by its name
+     */
+    public synchronized void update(final PathRules defaultRules, final Function<String, PathRules> rulesByWorldName) {
+        this.defaultRules = defaultRules;
+        this.rulesByWorldName = rulesByWorldName;
+
+        final PathRules[] compiled = new PathRules[names.size()];
+        for (int id = 0; id < compiled.length; id++) {
+            compiled[id] = rulesByWorldName.apply(names.get(id));
+        }
+        rules = compiled;
+    }
+
+    /**
+     * Gives the world an id, or returns the one it already has. Called when a world loads.
+     *
+     * @param worldId The UID of the world
+     * @param name    The name of the world
+     * @return The id
+     */
+    public synchronized int register(final UUID worldId, final String name) {
+        final Integer existing = ids.get(worldId);
+        if (existing != null) {
+            return existing;
+        }
+
+        final int id = names.size();
+        names.add(name);
+        final PathRules[] grown = Arrays.copyOf(rules, id + 1);
+        grown[id] = rulesByWorldName == null ? null : rulesByWorldName.apply(name);
+        rules = grown;
+        ids.put(worldId, id);
+        return id;
+    }
+
+    /**
+     * Returns the id of the world.
+     *
+     * @param worldId The UID of the world
+     * @return The id, -1 if the world was never registered
+     */
+    public int getId(final UUID worldId) {
+        final Integer id = ids.get(worldId);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the rules of the world with the given id.
+     *
+     * @param id The id, see {@link #getId(UUID)}
+     * @return The rules, the default rules for an unknown id
+     */
+    public PathRules get(final int id) {
+        final PathRules[] current = rules;
+        final PathRules worldRules = id >= 0 && id < current.length ? current[id] : null;
+        return worldRules != null ? worldRules : defaultRules;
+    }
+}
@@ -0,0 +1,90 @@
+package me.kermx.desirepaths.schedulers;
+
+/**
+ * Decides how often and for how many players the path attempts run,
+ * from how busy the server is. Above the target MSPT the interval is
+ * doubled and the player cap halved on every cycle, so it backs off
+ * within a few cycles; below the recover MSPT both creep back by one
+ * step per cycle. Above the pause MSPT no attempts run at all.
+ */
+public class AdaptiveFrequency {
+    private final int minFrequency;
+    private final int maxFrequency;
+    private final int minPlayers;
+    private final int maxPlayers;
+    private final double targetMspt;
+    private final double pauseMspt;
+    private final double recoverMspt;
+    private final int playerStep;
+
+    private int frequency;
+    private int playerCap;
+    private int ticksUntilCycle;
+
+    /**
+     * Constructs the controller.
+     *
+     * @param initialFrequency The frequency to start at, in ticks
+     * @param minFrequency     The shortest interval between cycles, in ticks
+     * @param maxFrequency     The longest interval between cycles, in ticks
+     * @param minPlayers       The fewest players processed per cycle
+     * @param maxPlayers       The most players processed per cycle
+     * @param targetMspt       Back off at or above this MSPT
+     * @param pauseMspt        Skip cycles at or above this MSPT
+     * @param recoverMspt      Recover below this MSPT
+     */
+    public AdaptiveFrequency(final int initialFrequency, final int minFrequency, final int maxFrequency,
+                             final int minPlayers, final int maxPlayers,
+                             final double targetMspt, final double pauseMspt, final double recoverMspt) {
+        this.minFrequency = Math.max(1, minFrequency);
+        this.maxFrequency = Math.max(this.minFrequency, maxFrequency);
+        this.minPlayers = Math.max(1, minPlayers);
+        this.maxPlayers = Math.max(this.minPlayers, maxPlayers);
+        this.targetMspt = targetMspt;
+        this.pauseMspt = pauseMspt;
+        this.recoverMspt = Math.min(recoverMspt, targetMspt);
+        this.playerStep = Math.max(1, this.maxPlayers / 20);
+
+        this.frequency = Math.max(this.minFrequency, Math.min(this.maxFrequency, initialFrequency));
+        this.playerCap = this.maxPlayers;
+        this.ticksUntilCycle = frequency;
+    }
+
+    /**
+     * Advances one tick.
+     *
+     * @param mspt The current milliseconds per tick
+     * @return The number of players to process this tick, 0 for no cycle
+     */
+    public int tick(final double mspt) {
+        if (--ticksUntilCycle > 0) {
+            return 0;
+        }
+
+        if (mspt >= pauseMspt) {
+            frequency = maxFrequency;
+            playerCap = minPlayers;
+            ticksUntilCycle = frequency;
+            return 0;
+        }
+
+        if (mspt >= targetMspt) {
+            frequency = Math.min(maxFrequency, frequency * 2);
+            playerCap = Math.max(minPlayers, playerCap / 2);
+        } else if (mspt < recoverMspt) {
+            frequency = Math.max(minFrequency, frequency - 1);
+            playerCap = Math.min(maxPlayers, playerCap + playerStep);
+        }
+
+        ticksUntilCycle = frequency;
+        return playerCap;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+
+    public int getPlayerCap() {
+        return playerCap;
+    }
+}
@@ -0,0 +1,184 @@
+package me.kermx.desirepaths.schedulers;
+
+import me.kermx.desirepaths.DesirePaths;
+import me.kermx.desirepaths.metrics.PathMetrics;
+import me.kermx.desirepaths.paths.BlockMutation;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects block mutations from any thread and applies them on the
+ * main thread from a single repeating task.
+ * <p>
+ * Every tick the task spends at most the configured budget. Mutations
+ * are grouped per chunk and a chunk is always applied as a whole; the
+ * chunks that did not fit in the budget carry over to the next tick.
+ * At least one chunk is applied every tick, even when the tick is already
+ * over budget, and at most blockChangeMaxPending mutations wait; new ones
+ * are dropped beyond that.
+ * On a region-threaded server every chunk is handed to the thread that
+ * owns it instead, and the budget only limits the handing out.
+ */
+public class BlockMutationQueue {
+    private final DesirePaths plugin;
+    private final SchedulerAdapter scheduler;
+    private final BiConsumer<Block, BlockMutation> applier;
+
+    private final Queue<BlockMutation> inbound = new ConcurrentLinkedQueue<>();
+
+    // Main thread (global region thread) only
+    private final ArrayDeque<ChunkBatch> pending = new ArrayDeque<>();
+    private final Map<UUID, Map<Long, ChunkBatch>> pendingIndex = new HashMap<>();
+    private int pendingMutations;
+
+    private SchedulerAdapter.Task task;
+
+    /**
+     * Constructs the queue.
+     *
+     * @param plugin    The plugin's instance
+     * @param scheduler The scheduler backend
+     * @param applier   Applies a single mutation to its block, called on the thread owning the block
+     */
+    public BlockMutationQueue(final DesirePaths plugin, final SchedulerAdapter scheduler,
+                              final BiConsumer<Block, BlockMutation> applier) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.applier = applier;
+    }
+
+    /**
+     * Starts the drain task, running every tick.
+     */
+    public void start() {
+        task = scheduler.runRepeating(this::drain, 1L, 1L);
+    }
+
+    /**
+     * Stops the drain task and drops anything still queued.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        inbound.clear();
+        pending.clear();
+        pendingIndex.clear();
+        pendingMutations = 0;
+    }
+
+    /**
+     * Queues a mutation. Safe to call from any thread.
+     *
+     * @param mutation The mutation
+     */
+    public void submit(final BlockMutation mutation) {
+        inbound.add(mutation);
+    }
+
+    /**
+     * Returns the number of chunks waiting to be applied.
+     */
+    public int getPendingChunks() {
+        return pending.size();
+    }
+
+    private void drain() {
+        final long deadline = System.nanoTime() + plugin.getFileConfig().getMutationTickBudgetNanos();
+        final int maxPending = plugin.getFileConfig().getMutationMaxPending();
+
+        BlockMutation mutation;
+        while ((mutation = inbound.poll()) != null) {
+            if (pendingMutations >= maxPending) {
+                plugin.getMetrics().increment(PathMetrics.Counter.MUTATIONS_DROPPED);
+                continue;
+            }
+            batchFor(mutation).mutations.add(mutation);
+            pendingMutations++;
+        }
+
+        // The deadline is checked after a batch, so a tick that starts over budget still makes progress
+        while (!pending.isEmpty()) {
+            final ChunkBatch batch = pending.poll();
+            pendingMutations -= batch.mutations.size();
+            final Map<Long, ChunkBatch> worldBatches = pendingIndex.get(batch.worldId);
+            worldBatches.remove(batch.chunkKey);
+            if (worldBatches.isEmpty()) {
+                pendingIndex.remove(batch.worldId);
+            }
+            dispatch(batch);
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+    }
+
+    private ChunkBatch batchFor(final BlockMutation mutation) {
+        final Map<Long, ChunkBatch> worldBatches = pendingIndex.computeIfAbsent(mutation.getWorldId(), id -> new HashMap<>());
+        final long chunkKey = mutation.getChunkKey();
+        ChunkBatch batch = worldBatches.get(chunkKey);
+
+        if (batch == null) {
+            batch = new ChunkBatch(mutation.getWorldId(), chunkKey, mutation.getX() >> 4, mutation.getZ() >> 4);
+            worldBatches.put(chunkKey, batch);
+            pending.add(batch);
+        }
+        return batch;
+    }
+
+    private void dispatch(final ChunkBatch batch) {
+        final World world = Bukkit.getWorld(batch.worldId);
+
+        if (world == null) {
+            return;
+        }
+        if (scheduler.isRegionThreaded()) {
+            scheduler.runAtChunk(world, batch.chunkX, batch.chunkZ, () -> apply(world, batch));
+        } else {
+            apply(world, batch);
+        }
+    }
+
+    private void apply(final World world, final ChunkBatch batch) {
+        // Never load a chunk just to put a path in it
+        if (!world.isChunkLoaded(batch.chunkX, batch.chunkZ)) {
+            return;
+        }
+
+        for (final BlockMutation mutation : batch.mutations) {
+            if (mutation.getPlayer().isOnline()) {
+                applier.accept(world.getBlockAt(mutation.getX(), mutation.getY(), mutation.getZ()), mutation);
+            }
+        }
+    }
+
+    /**
+     * The mutations of a single chunk.
+     */
+    private static class ChunkBatch {
+        private final UUID worldId;
+        private final long chunkKey;
+        private final int chunkX;
+        private final int chunkZ;
+        private final List<BlockMutation> mutations = new ArrayList<>();
+
+        private ChunkBatch(final UUID worldId, final long chunkKey, final int chunkX, final int chunkZ) {
+            this.worldId = worldId;
+            this.chunkKey = chunkKey;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package me.kermx.desirepaths.schedulers;
+
+import me.kermx.desirepaths.DesirePaths;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Scheduler backend for servers with a single main thread.
+ */
+public class BukkitSchedulerAdapter implements SchedulerAdapter {
+    private final DesirePaths plugin;
+
+    public BukkitSchedulerAdapter(final DesirePaths plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return false;
+    }
+
+    @Override
+    public Task runRepeating(final Runnable task, final long delay, final long period) {
+        final BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period);
+        return bukkitTask::cancel;
+    }
+
+    @Override
+    public void runAsync(final Runnable task) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public void runForEntity(final Entity entity, final Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void runAtChunk(final World world, final int chunkX, final int chunkZ, final Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void cancelAll() {
+        Bukkit.getScheduler().cancelTasks(plugin);
+    }
+
+    private void runOnMainThread(final Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+}
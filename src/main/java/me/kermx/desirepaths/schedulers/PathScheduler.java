@@ -2,46 +2,272 @@ package me.kermx.desirepaths.schedulers;
 
 import me.kermx.desirepaths.DesirePaths;
 import me.kermx.desirepaths.files.Config;
-import me.kermx.desirepaths.listeners.PlayerMoveEventListener;
+import me.kermx.desirepaths.managers.MovementTracker;
+import me.kermx.desirepaths.metrics.PathMetrics;
+import me.kermx.desirepaths.paths.PlayerSnapshot;
+import me.kermx.desirepaths.rules.PathRules;
+import me.kermx.desirepaths.rules.WorldRules;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+/**
+ * Drives the path attempts. Every attemptFrequency ticks the players
+ * are copied into snapshots on the main thread, which is cheap, and
+ * the snapshots are then evaluated off the main thread.
+ * <p>
+ * On a region-threaded server there is no main thread that may read
+ * every player, so each player is snapshotted and evaluated on the
+ * thread that owns them instead.
+ * <p>
+ * In adaptive mode the interval and the number of players per cycle
+ * follow the server's MSPT, see {@link AdaptiveFrequency}. When not
+ * every player fits in a cycle, the next cycle continues where the
+ * previous one stopped.
+ * <p>
+ * In staggered mode, used on larger servers, every player is given one of
+ * attemptFrequency phases from their UUID and each tick only processes the
+ * players of its phase, up to a per-tick cap. Every player keeps the same
+ * attempt rate, but the work is spread over the ticks instead of spiking
+ * once per cycle. Players over the cap are carried over to the next tick.
+ * <p>
+ * Players in a world whose profile is disabled are skipped. A world
+ * profile with a slower attemptFrequency only gets the cycles that cross
+ * a multiple of its frequency, counted in server ticks.
+ */
 public class PathScheduler {
     private final DesirePaths plugin;
-    private final PlayerMoveEventListener playerMove;
-    private final Config fileConfig;
+    private final MovementTracker movementTracker;
+    private final SchedulerAdapter scheduler;
 
-    public PathScheduler(final DesirePaths plugin, final PlayerMoveEventListener playerMove, final Config fileConfig) {
+    private SchedulerAdapter.Task task;
+    private TickMonitor tickMonitor;
+    private AdaptiveFrequency adaptiveFrequency;
+    private int playerCursor;
+    private long tick;
+    private long lastCycleTick; // adaptive mode, the tick of the previous cycle
+    private final Set<Player> carriedOver = new LinkedHashSet<>();
+
+    public PathScheduler(final DesirePaths plugin, final MovementTracker movementTracker, final SchedulerAdapter scheduler) {
         this.plugin = plugin;
-        this.playerMove = playerMove;
-        this.fileConfig = fileConfig;
+        this.movementTracker = movementTracker;
+        this.scheduler = scheduler;
     }
 
     public void startScheduler() {
-        Bukkit.getScheduler().runTaskTimerAsynchronously(
-                plugin,
-                this::processPlayers,
-                0L,
-                fileConfig.getAttemptFrequency()
-        );
-    }
-
-    private void processPlayers() {
-        for (final Player player : Bukkit.getOnlinePlayers()) {
-            if (fileConfig.isMovementCheckEnabled()) {
-                final UUID playerId = player.getUniqueId();
-
-                if (playerMove.getMovedPlayers().containsKey(playerId)) {
-                    // Do action
-                    playerHandler(playerId);
-                }
+        final Config fileConfig = plugin.getFileConfig();
+        adaptiveFrequency = null;
+        carriedOver.clear();
+        lastCycleTick = tick;
+
+        if (fileConfig.isAdaptiveFrequencyEnabled()) {
+            tickMonitor = new TickMonitor();
+            adaptiveFrequency = new AdaptiveFrequency(
+                    fileConfig.getAttemptFrequency(),
+                    fileConfig.getAdaptiveMinFrequency(),
+                    fileConfig.getAdaptiveMaxFrequency(),
+                    fileConfig.getAdaptiveMinPlayers(),
+                    fileConfig.getAdaptiveMaxPlayers(),
+                    fileConfig.getAdaptiveTargetMspt(),
+                    fileConfig.getAdaptivePauseMspt(),
+                    fileConfig.getAdaptiveRecoverMspt()
+            );
+            task = scheduler.runRepeating(this::adaptiveTick, 1L, 1L);
+            return;
+        }
+
+        if (fileConfig.isStaggeredEnabled()) {
+            task = scheduler.runRepeating(this::staggeredTick, 1L, 1L);
+            return;
+        }
+
+        final int frequency = fileConfig.getAttemptFrequency();
+        task = scheduler.runRepeating(() -> {
+            tick += frequency;
+            processPlayers(playersThisCycle(Integer.MAX_VALUE), frequency);
+        }, 1L, frequency);
+    }
+
+    /**
+     * Cancels the task and starts it again with the current settings, e.g. after a reload.
+     */
+    public void restartScheduler() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        startScheduler();
+    }
+
+    private void adaptiveTick() {
+        tickMonitor.tick();
+        tick++;
+        final int playerCap = adaptiveFrequency.tick(tickMonitor.getMspt());
+
+        if (playerCap > 0) {
+            // The frequency may have changed since the previous cycle, or a paused stretch passed
+            final int interval = (int) Math.min(Integer.MAX_VALUE, tick - lastCycleTick);
+            lastCycleTick = tick;
+            processPlayers(playersThisCycle(playerCap), interval);
+        }
+    }
+
+    private void staggeredTick() {
+        final Config fileConfig = plugin.getFileConfig();
+        final int period = Math.max(1, fileConfig.getAttemptFrequency());
+        final int phase = (int) (tick++ % period);
+        final Collection<? extends Player> online = Bukkit.getOnlinePlayers();
+
+        // Too few players to be worth spreading, process everyone once per cycle
+        if (online.size() < fileConfig.getStaggeredMinPlayers()) {
+            carriedOver.clear();
+            if (phase == 0) {
+                processPlayers(online, period);
+            }
+            return;
+        }
+
+        for (final Player player : online) {
+            if (Math.floorMod(player.getUniqueId().hashCode(), period) == phase) {
+                carriedOver.add(player);
+            }
+        }
+
+        final int cap = Math.max(1, fileConfig.getStaggeredMaxPlayersPerTick());
+        final List<Player> due = new ArrayList<>(Math.min(cap, carriedOver.size()));
+        final Iterator<Player> iterator = carriedOver.iterator();
+
+        while (iterator.hasNext() && due.size() < cap) {
+            final Player player = iterator.next();
+            iterator.remove();
+            if (player.isOnline()) {
+                due.add(player);
+            }
+        }
+        if (!due.isEmpty()) {
+            processPlayers(due, period);
+        }
+    }
+
+    /**
+     * Returns the adaptive frequency controller, null when not in adaptive mode.
+     */
+    public AdaptiveFrequency getAdaptiveFrequency() {
+        return adaptiveFrequency;
+    }
+
+    /**
+     * Snapshot stage, runs on the main thread (global region thread on Folia).
+     *
+     * @param players  The players to process
+     * @param interval Ticks since these players were last processed
+     */
+    private void processPlayers(final Collection<? extends Player> players, final int interval) {
+        final PathMetrics metrics = plugin.getMetrics();
+        final long start = metrics.start();
+        final Config fileConfig = plugin.getFileConfig();
+        final WorldRules worldRules = plugin.getWorldRules();
+        final boolean regionThreaded = scheduler.isRegionThreaded();
+        final List<PlayerSnapshot> snapshots = new ArrayList<>();
+        int attempts = 0;
+
+        for (final Player player : players) {
+            final UUID playerId = player.getUniqueId();
+
+            if (fileConfig.isMovementCheckEnabled() && !movementTracker.consume(playerId)) {
+                continue;
+            }
+            if (!plugin.getToggleManager().getToggle(playerId)) {
+                continue;
+            }
+            final int worldIndex = worldRules.getId(player.getWorld().getUID());
+            final PathRules rules = worldRules.get(worldIndex);
+            if (!rules.isEnabled() || !isDue(rules, interval)) {
+                continue;
             }
+            attempts++;
+            if (regionThreaded) {
+                // The player may have changed worlds by the time their thread runs this
+                scheduler.runForEntity(player, () -> plugin.playerHandler(
+                        capture(player, worldRules.getId(player.getWorld().getUID()))));
+            } else {
+                snapshots.add(capture(player, worldIndex));
+            }
+        }
+
+        if (!snapshots.isEmpty()) {
+            scheduler.runAsync(() -> evaluate(snapshots));
         }
+
+        metrics.increment(PathMetrics.Counter.CYCLES);
+        metrics.add(PathMetrics.Counter.ATTEMPTS, attempts);
+        metrics.stop(PathMetrics.Stage.PROCESS_PLAYERS, start);
     }
 
-    private void playerHandler(final UUID playerId) {
-        playerMove.getMovedPlayers().remove(playerId);
+    // A slower world frequency is due when a multiple of it passed since the last cycle
+    private boolean isDue(final PathRules rules, final int interval) {
+        final int frequency = rules.getAttemptFrequency();
+        return frequency <= interval || Math.floorDiv(tick, frequency) != Math.floorDiv(tick - interval, frequency);
+    }
+
+    // All players, or the next playerCap of them after the previous cycle
+    private Collection<? extends Player> playersThisCycle(final int playerCap) {
+        final Collection<? extends Player> online = Bukkit.getOnlinePlayers();
+
+        if (online.size() <= playerCap) {
+            playerCursor = 0;
+            return online;
+        }
+
+        final List<Player> players = new ArrayList<>(online);
+        final List<Player> selected = new ArrayList<>(playerCap);
+        final int start = playerCursor % players.size();
+
+        for (int i = 0; i < playerCap; i++) {
+            selected.add(players.get((start + i) % players.size()));
+        }
+        playerCursor = (start + playerCap) % players.size();
+        return selected;
+    }
+
+    // Runs on the thread owning the player, which also owns their chunk
+    private PlayerSnapshot capture(final Player player, final int worldIndex) {
+        final Location location = player.getLocation();
+        final World world = location.getWorld();
+        final PathRules rules = plugin.getWorldRules().get(worldIndex);
+        // Both come from caches kept up to date by EnvironmentListener
+        final boolean raining = plugin.getWeatherTracker().isRaining(worldIndex);
+        final Biome biome = rules.hasBiomeModifiers()
+                ? plugin.getBiomeCache().get(world, location.getBlockX(), location.getBlockZ()) : null;
+        final PlayerSnapshot snapshot = PlayerSnapshot.capture(player, location, worldIndex,
+                plugin.getModifierCache().get(player), raining, biome);
+
+        if (plugin.getTraceRecorder().isRecording()) {
+            plugin.getTraceRecorder().record(player);
+        }
+
+        if (rules.isEnabled()) {
+            plugin.getChunkSummaryCache().capture(world.getChunkAt(snapshot.getBlockX() >> 4, snapshot.getBlockZ() >> 4), scheduler);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Evaluation stage, runs off the main thread and only reads the snapshots.
+     */
+    private void evaluate(final List<PlayerSnapshot> snapshots) {
+        for (final PlayerSnapshot snapshot : snapshots) {
+            plugin.playerHandler(snapshot);
+        }
     }
 }
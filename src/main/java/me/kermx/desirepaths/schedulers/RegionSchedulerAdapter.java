@@ -0,0 +1,126 @@
+package me.kermx.desirepaths.schedulers;
+
+import me.kermx.desirepaths.DesirePaths;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+/**
+ * Scheduler backend for region-threaded servers (Folia).
+ * <p>
+ * We compile against the Spigot API, which does not have the region
+ * schedulers, so they are looked up reflectively once and then invoked
+ * through the cached methods. Entity work runs on the thread that owns
+ * the entity and block work on the thread that owns the chunk.
+ */
+public class RegionSchedulerAdapter implements SchedulerAdapter {
+    private static final String REGIONIZED_SERVER = "io.papermc.paper.threadedregions.RegionizedServer";
+
+    private final DesirePaths plugin;
+
+    private final Object globalScheduler;
+    private final Object regionScheduler;
+    private final Object asyncScheduler;
+
+    private final Method globalRunAtFixedRate;
+    private final Method globalCancelTasks;
+    private final Method regionExecute;
+    private final Method asyncRunNow;
+    private final Method asyncCancelTasks;
+    private final Method entityGetScheduler;
+    private final Method entityExecute;
+    private final Method taskCancel;
+
+    public RegionSchedulerAdapter(final DesirePaths plugin) {
+        this.plugin = plugin;
+
+        try {
+            globalScheduler = Bukkit.class.getMethod("getGlobalRegionScheduler").invoke(null);
+            regionScheduler = Bukkit.class.getMethod("getRegionScheduler").invoke(null);
+            asyncScheduler = Bukkit.class.getMethod("getAsyncScheduler").invoke(null);
+
+            final Class<?> globalClass = Class.forName("io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler");
+            final Class<?> regionClass = Class.forName("io.papermc.paper.threadedregions.scheduler.RegionScheduler");
+            final Class<?> asyncClass = Class.forName("io.papermc.paper.threadedregions.scheduler.AsyncScheduler");
+            final Class<?> entityClass = Class.forName("io.papermc.paper.threadedregions.scheduler.EntityScheduler");
+            final Class<?> taskClass = Class.forName("io.papermc.paper.threadedregions.scheduler.ScheduledTask");
+
+            globalRunAtFixedRate = globalClass.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+            globalCancelTasks = globalClass.getMethod("cancelTasks", Plugin.class);
+            regionExecute = regionClass.getMethod("execute", Plugin.class, World.class, int.class, int.class, Runnable.class);
+            asyncRunNow = asyncClass.getMethod("runNow", Plugin.class, Consumer.class);
+            asyncCancelTasks = asyncClass.getMethod("cancelTasks", Plugin.class);
+            entityGetScheduler = Entity.class.getMethod("getScheduler");
+            entityExecute = entityClass.getMethod("execute", Plugin.class, Runnable.class, Runnable.class, long.class);
+            taskCancel = taskClass.getMethod("cancel");
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Region schedulers are not available", e);
+        }
+    }
+
+    /**
+     * Returns whether the server is region-threaded.
+     */
+    public static boolean isSupported() {
+        try {
+            Class.forName(REGIONIZED_SERVER);
+            return true;
+        } catch (final ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return true;
+    }
+
+    @Override
+    public Task runRepeating(final Runnable task, final long delay, final long period) {
+        final Consumer<Object> consumer = scheduledTask -> task.run();
+        final Object scheduledTask = invoke(globalRunAtFixedRate, globalScheduler, plugin, consumer, Math.max(1L, delay), period);
+        return () -> invoke(taskCancel, scheduledTask);
+    }
+
+    @Override
+    public void runAsync(final Runnable task) {
+        final Consumer<Object> consumer = scheduledTask -> task.run();
+        invoke(asyncRunNow, asyncScheduler, plugin, consumer);
+    }
+
+    @Override
+    public void runForEntity(final Entity entity, final Runnable task) {
+        final Object entityScheduler = invoke(entityGetScheduler, entity);
+        invoke(entityExecute, entityScheduler, plugin, task, null, 1L);
+    }
+
+    @Override
+    public void runAtChunk(final World world, final int chunkX, final int chunkZ, final Runnable task) {
+        invoke(regionExecute, regionScheduler, plugin, world, chunkX, chunkZ, task);
+    }
+
+    @Override
+    public void cancelAll() {
+        invoke(globalCancelTasks, globalScheduler, plugin);
+        invoke(asyncCancelTasks, asyncScheduler, plugin);
+    }
+
+    private static Object invoke(final Method method, final Object target, final Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (final InvocationTargetException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package me.kermx.desirepaths.schedulers;
+
+import me.kermx.desirepaths.DesirePaths;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+/**
+ * The scheduling operations DesirePaths needs, so the same code runs
+ * on a server with one main thread and on a region-threaded one.
+ * <p>
+ * On a single main thread "the thread that owns the entity" and "the
+ * thread that owns the chunk" are both the main thread.
+ */
+public interface SchedulerAdapter {
+
+    /**
+     * Returns the backend that fits the running server.
+     *
+     * @param plugin The plugin's instance
+     * @return The scheduler adapter
+     */
+    static SchedulerAdapter create(final DesirePaths plugin) {
+        if (RegionSchedulerAdapter.isSupported()) {
+            return new RegionSchedulerAdapter(plugin);
+        }
+        return new BukkitSchedulerAdapter(plugin);
+    }
+
+    /**
+     * Returns whether work is spread over region threads, in which case
+     * there is no single thread that may touch every entity and block.
+     */
+    boolean isRegionThreaded();
+
+    /**
+     * Runs the task repeatedly on the main thread, or the global region thread.
+     *
+     * @param task   The task
+     * @param delay  Ticks before the first run, at least 1
+     * @param period Ticks between runs
+     * @return Handle to cancel the task
+     */
+    Task runRepeating(Runnable task, long delay, long period);
+
+    /**
+     * Runs the task once off the main thread.
+     *
+     * @param task The task
+     */
+    void runAsync(Runnable task);
+
+    /**
+     * Runs the task on the thread that owns the entity. Dropped if the entity is removed first.
+     *
+     * @param entity The entity
+     * @param task   The task
+     */
+    void runForEntity(Entity entity, Runnable task);
+
+    /**
+     * Runs the task on the thread that owns the chunk.
+     *
+     * @param world  The world
+     * @param chunkX Chunk x
+     * @param chunkZ Chunk z
+     * @param task   The task
+     */
+    void runAtChunk(World world, int chunkX, int chunkZ, Runnable task);
+
+    /**
+     * Cancels every task of the plugin.
+     */
+    void cancelAll();
+
+    /**
+     * A scheduled repeating task.
+     */
+    interface Task {
+        void cancel();
+    }
+}
@@ -0,0 +1,61 @@
+package me.kermx.desirepaths.schedulers;
+
+import org.bukkit.Bukkit;
+
+import java.lang.reflect.Method;
+
+/**
+ * Measures how busy the server is, in milliseconds per tick.
+ * <p>
+ * Paper reports the average tick time itself, which is looked up
+ * reflectively since we compile against the Spigot API. Elsewhere the
+ * time between two ticks is measured instead; that is 50 ms on a healthy
+ * server whatever the load, so only an overloaded server shows up and
+ * anything up to 50 ms counts as idle.
+ */
+public class TickMonitor {
+    private static final double TICK_MILLIS = 50.0;
+    private static final double SMOOTHING = 0.2;
+
+    private final Method averageTickTime = findAverageTickTime();
+
+    private long lastTickNanos;
+    private double intervalMillis = TICK_MILLIS;
+
+    private static Method findAverageTickTime() {
+        try {
+            final Method method = Bukkit.getServer().getClass().getMethod("getAverageTickTime");
+            // Region-threaded servers have no single tick time and throw here
+            method.invoke(Bukkit.getServer());
+            return method;
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Measures the tick, called once per tick from a repeating task.
+     */
+    public void tick() {
+        final long now = System.nanoTime();
+
+        if (lastTickNanos != 0L) {
+            final double millis = (now - lastTickNanos) / 1_000_000.0;
+            intervalMillis += (millis - intervalMillis) * SMOOTHING;
+        }
+        lastTickNanos = now;
+    }
+
+    /**
+     * Returns the milliseconds per tick.
+     */
+    public double getMspt() {
+        if (averageTickTime != null) {
+            try {
+                return ((Number) averageTickTime.invoke(Bukkit.getServer())).doubleValue();
+            } catch (final ReflectiveOperationException | RuntimeException ignored) {}
+        }
+        // Ticks are scheduled 50 ms apart, only longer intervals tell anything
+        return intervalMillis > TICK_MILLIS + 1.0 ? intervalMillis : 0.0;
+    }
+}
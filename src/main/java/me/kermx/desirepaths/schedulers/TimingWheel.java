@@ -0,0 +1,147 @@
+package me.kermx.desirepaths.schedulers;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel, for scheduling many timers without one
+ * scheduler task each. Time is counted in steps of whatever unit the
+ * caller picks, e.g. seconds for {@code PathRegrowth}; deadlines and
+ * {@link #advance} must use the same unit. There are four wheels of 64
+ * slots; a slot of the first wheel is one step, a slot of every next wheel
+ * spans a full turn of the one before it. A timer sits in the coarsest
+ * wheel that can hold its deadline and moves to a finer one whenever its
+ * slot comes up, so scheduling is O(1) and advancing a step only touches
+ * the due slot.
+ * <p>
+ * Timers are linked into their slot intrusively, nothing is allocated
+ * per timer. A timer cannot be cancelled, callers check whether it is
+ * still wanted when it expires. Not thread-safe.
+ *
+ * @param <T> The timer type
+ */
+public final class TimingWheel<T extends TimingWheel.Timer> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final Timer[][] wheels = new Timer[LEVELS][SLOTS];
+    private long now;
+    private int size;
+
+    /**
+     * Constructs the wheel.
+     *
+     * @param now The current step
+     */
+    public TimingWheel(final long now) {
+        this.now = now;
+    }
+
+    /**
+     * Returns the step the wheel is at.
+     */
+    public long getNow() {
+        return now;
+    }
+
+    /**
+     * Returns the number of scheduled timers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules the timer. A deadline that is not in the future expires on the next step.
+     *
+     * @param timer    The timer, must not be scheduled already
+     * @param deadline The step it expires on
+     */
+    public void schedule(final T timer, final long deadline) {
+        final Timer scheduled = timer;
+        scheduled.deadline = Math.max(deadline, now + 1);
+        insert(scheduled);
+        size++;
+    }
+
+    /**
+     * Moves the wheel to the given step, handing out every timer that expires on the way.
+     *
+     * @param step    The current step
+     * @param expired Receives the expired timers, it may schedule them again
+     */
+    @SuppressWarnings("unchecked")
+    public void advance(final long step, final Consumer<T> expired) {
+        while (now < step) {
+            now++;
+
+            // Coarse wheels first, their timers may drop all the way down into this step
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((now & ((1L << (level * BITS)) - 1)) == 0) {
+                    cascade(level, (int) (now >>> (level * BITS)) & MASK);
+                }
+            }
+
+            final int slot = (int) now & MASK;
+            Timer timer = wheels[0][slot];
+            wheels[0][slot] = null;
+
+            while (timer != null) {
+                final Timer next = timer.next;
+                timer.next = null;
+                size--;
+                expired.accept((T) timer);
+                timer = next;
+            }
+        }
+    }
+
+    private void cascade(final int level, final int slot) {
+        Timer timer = wheels[level][slot];
+        wheels[level][slot] = null;
+
+        while (timer != null) {
+            final Timer next = timer.next;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    private void insert(final Timer timer) {
+        final long deadline = Math.max(timer.deadline, now);
+
+        for (int level = 0; level < LEVELS; level++) {
+            final int shift = level * BITS;
+
+            if ((deadline >>> shift) - (now >>> shift) < SLOTS) {
+                link(level, (int) (deadline >>> shift) & MASK, timer);
+                return;
+            }
+        }
+
+        // Beyond the last wheel, park it in the furthest slot and place it again once that comes up
+        final int shift = (LEVELS - 1) * BITS;
+        link(LEVELS - 1, (int) ((now >>> shift) + MASK) & MASK, timer);
+    }
+
+    private void link(final int level, final int slot, final Timer timer) {
+        timer.next = wheels[level][slot];
+        wheels[level][slot] = timer;
+    }
+
+    /**
+     * Something that can be scheduled on a wheel.
+     */
+    public abstract static class Timer {
+        private Timer next;
+        private long deadline;
+
+        /**
+         * Returns the step the timer was last scheduled for.
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package me.kermx.desirepaths.trace;
+
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a trace written by {@link TraceWriter}. Names this server version
+ * does not know read as null, or as AIR for blocks.
+ */
+public final class TraceReader implements Closeable {
+    private final DataInputStream in;
+    private final List<String> names = new ArrayList<>();
+    private final String source;
+    private final long startedMillis;
+
+    /**
+     * Opens the file and reads the header.
+     *
+     * @param file The file
+     * @throws IOException If the file cannot be read or is no trace
+     */
+    public TraceReader(final Path file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 1 << 16), 1 << 16));
+
+        if (in.readInt() != TraceWriter.MAGIC) {
+            in.close();
+            throw new IOException(file + " is not a DesirePaths trace");
+        }
+        final short version = in.readShort();
+        if (version != TraceWriter.VERSION) {
+            in.close();
+            throw new IOException(file + " has trace version " + version + ", expected " + TraceWriter.VERSION);
+        }
+        source = in.readUTF();
+        startedMillis = in.readLong();
+    }
+
+    /**
+     * Reads the next attempt.
+     *
+     * @return The record, null at the end of the trace
+     * @throws IOException If the file cannot be read
+     */
+    public TraceRecord next() throws IOException {
+        while (true) {
+            final int type;
+            try {
+                type = in.readByte();
+            } catch (final EOFException e) {
+                return null;
+            }
+
+            if (type == TraceWriter.NAME) {
+                final int id = in.readInt();
+                if (id != names.size()) {
+                    throw new IOException("Name " + id + " out of order");
+                }
+                names.add(in.readUTF());
+            } else if (type == TraceWriter.ATTEMPT) {
+                return readAttempt();
+            } else {
+                throw new IOException("Unknown record type " + type);
+            }
+        }
+    }
+
+    private TraceRecord readAttempt() throws IOException {
+        final int timeMillis = in.readInt();
+        final UUID playerId = UUID.fromString(name(in.readInt()));
+        final UUID worldId = UUID.fromString(name(in.readInt()));
+        final double x = in.readDouble();
+        final double y = in.readDouble();
+        final double z = in.readDouble();
+        final String vehicle = name(in.readInt());
+        final String boots = name(in.readInt());
+        final int flags = in.readByte();
+        final String gameMode = name(in.readInt());
+        final Material below = block(name(in.readInt()));
+        final Material atFeet = block(name(in.readInt()));
+        final Material above = block(name(in.readInt()));
+
+        return new TraceRecord(timeMillis, playerId, worldId, x, y, z,
+                vehicle == null ? null : entityType(vehicle),
+                boots == null ? null : Material.getMaterial(boots),
+                (flags & TraceWriter.FEATHER_FALLING) != 0,
+                (flags & TraceWriter.SPRINTING) != 0,
+                (flags & TraceWriter.SNEAKING) != 0,
+                gameMode(gameMode),
+                below, atFeet, above);
+    }
+
+    private String name(final int id) throws IOException {
+        if (id == -1) {
+            return null;
+        }
+        if (id < 0 || id >= names.size()) {
+            throw new IOException("Undefined name " + id);
+        }
+        return names.get(id);
+    }
+
+    private static Material block(final String name) {
+        final Material material = Material.getMaterial(name);
+        return material == null ? Material.AIR : material;
+    }
+
+    private static EntityType entityType(final String name) {
+        try {
+            return EntityType.valueOf(name);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static GameMode gameMode(final String name) {
+        try {
+            return GameMode.valueOf(name);
+        } catch (final IllegalArgumentException e) {
+            return GameMode.SURVIVAL;
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getStartedMillis() {
+        return startedMillis;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,173 @@
+package me.kermx.desirepaths.trace;
+
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.UUID;
+
+/**
+ * One path attempt of one player as it is written to a trace: where the
+ * player was, what they were riding and wearing, how they moved and the
+ * blocks around their feet. Everything the decision pipeline looks at,
+ * so a trace can be replayed without a server.
+ */
+public final class TraceRecord {
+    private final int timeMillis;
+    private final UUID playerId;
+    private final UUID worldId;
+    private final double x;
+    private final double y;
+    private final double z;
+    private final EntityType vehicle;
+    private final Material boots;
+    private final boolean featherFalling;
+    private final boolean sprinting;
+    private final boolean sneaking;
+    private final GameMode gameMode;
+    private final Material below;
+    private final Material atFeet;
+    private final Material above;
+
+    /**
+     * Constructs the record. Use {@link #capture(Player, int)} on a live server.
+     *
+     * @param timeMillis     Milliseconds since the recording started
+     * @param playerId       The UUID of the player
+     * @param worldId        The UID of the world
+     * @param x              Exact x
+     * @param y              Exact y
+     * @param z              Exact z
+     * @param vehicle        The type of the vehicle, null if not riding
+     * @param boots          The material in the boots slot, null if empty
+     * @param featherFalling Do the boots have feather falling
+     * @param sprinting      Is the player sprinting
+     * @param sneaking       Is the player sneaking
+     * @param gameMode       The game mode
+     * @param below          The block below the feet
+     * @param atFeet         The block at the feet
+     * @param above          The block above the feet
+     */
+    public TraceRecord(final int timeMillis, final UUID playerId, final UUID worldId,
+                       final double x, final double y, final double z,
+                       final EntityType vehicle, final Material boots, final boolean featherFalling,
+                       final boolean sprinting, final boolean sneaking, final GameMode gameMode,
+                       final Material below, final Material atFeet, final Material above) {
+        this.timeMillis = timeMillis;
+        this.playerId = playerId;
+        this.worldId = worldId;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.vehicle = vehicle;
+        this.boots = boots;
+        this.featherFalling = featherFalling;
+        this.sprinting = sprinting;
+        this.sneaking = sneaking;
+        this.gameMode = gameMode;
+        this.below = below;
+        this.atFeet = atFeet;
+        this.above = above;
+    }
+
+    /**
+     * Copies the state of the player. Must be called on the thread owning the player.
+     *
+     * @param player     The player
+     * @param timeMillis Milliseconds since the recording started
+     * @return The record
+     */
+    public static TraceRecord capture(final Player player, final int timeMillis) {
+        final Location location = player.getLocation();
+        final World world = location.getWorld();
+        final Entity vehicle = player.getVehicle();
+        final ItemStack boots = player.getInventory().getBoots();
+        final int blockX = location.getBlockX();
+        final int blockY = location.getBlockY();
+        final int blockZ = location.getBlockZ();
+
+        return new TraceRecord(
+                timeMillis,
+                player.getUniqueId(),
+                world.getUID(),
+                location.getX(),
+                location.getY(),
+                location.getZ(),
+                vehicle == null ? null : vehicle.getType(),
+                boots == null ? null : boots.getType(),
+                boots != null && boots.containsEnchantment(Enchantment.PROTECTION_FALL),
+                player.isSprinting(),
+                player.isSneaking(),
+                player.getGameMode(),
+                world.getBlockAt(blockX, blockY - 1, blockZ).getType(),
+                world.getBlockAt(blockX, blockY, blockZ).getType(),
+                world.getBlockAt(blockX, blockY + 1, blockZ).getType()
+        );
+    }
+
+    public int getTimeMillis() {
+        return timeMillis;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public EntityType getVehicle() {
+        return vehicle;
+    }
+
+    public Material getBoots() {
+        return boots;
+    }
+
+    public boolean isFeatherFalling() {
+        return featherFalling;
+    }
+
+    public boolean isSprinting() {
+        return sprinting;
+    }
+
+    public boolean isSneaking() {
+        return sneaking;
+    }
+
+    public GameMode getGameMode() {
+        return gameMode;
+    }
+
+    public Material getBelow() {
+        return below;
+    }
+
+    public Material getAtFeet() {
+        return atFeet;
+    }
+
+    public Material getAbove() {
+        return above;
+    }
+}
@@ -0,0 +1,158 @@
+package me.kermx.desirepaths.trace;
+
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the path attempts of a live server to a trace file, so the
+ * traffic can be replayed offline against another plugin version.
+ * <p>
+ * The scheduler captures a record for every attempt on the thread owning
+ * the player and hands it to a bounded queue; a background thread writes
+ * it out. When the writer falls behind records are dropped rather than
+ * slowing down the server, and the drops are reported when it stops.
+ */
+public final class TraceRecorder {
+    private static final int QUEUE_CAPACITY = 1 << 16;
+
+    private final Logger logger;
+    private volatile Session session;
+
+    public TraceRecorder(final Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Starts recording to the file.
+     *
+     * @param file       The file to write
+     * @param source     What is recording, written to the header
+     * @param maxSeconds Stop on its own after this many seconds
+     * @return False if a recording is already running
+     * @throws IOException If the file cannot be created
+     */
+    public synchronized boolean start(final Path file, final String source, final long maxSeconds) throws IOException {
+        if (session != null) {
+            return false;
+        }
+
+        final Session newSession = new Session(file, new TraceWriter(file, source, System.currentTimeMillis()),
+                TimeUnit.SECONDS.toNanos(maxSeconds));
+        session = newSession;
+        newSession.thread.start();
+        return true;
+    }
+
+    public boolean isRecording() {
+        return session != null;
+    }
+
+    /**
+     * Records one attempt of the player. Must be called on the thread owning the player.
+     *
+     * @param player The player
+     */
+    public void record(final Player player) {
+        final Session current = session;
+        if (current == null || current.stopping) {
+            return;
+        }
+
+        final long elapsed = System.nanoTime() - current.startedNanos;
+        if (elapsed >= current.maxNanos) {
+            return;
+        }
+        if (!current.queue.offer(TraceRecord.capture(player, (int) TimeUnit.NANOSECONDS.toMillis(elapsed)))) {
+            current.dropped.increment();
+        }
+    }
+
+    /**
+     * Stops recording. The queued records are still written in the background.
+     *
+     * @return The file being written, null if not recording
+     */
+    public Path stop() {
+        final Session current = session;
+        if (current == null) {
+            return null;
+        }
+        current.stopping = true;
+        return current.file;
+    }
+
+    /**
+     * Stops recording and waits for the file to be written. Called on disable.
+     */
+    public void close() {
+        final Session current = session;
+        if (current == null) {
+            return;
+        }
+        current.stopping = true;
+        try {
+            current.thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void finished(final Session finished) {
+        if (session == finished) {
+            session = null;
+        }
+    }
+
+    private final class Session implements Runnable {
+        private final Path file;
+        private final TraceWriter writer;
+        private final long maxNanos;
+        private final long startedNanos = System.nanoTime();
+        private final BlockingQueue<TraceRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final LongAdder dropped = new LongAdder();
+        private final Thread thread;
+        private volatile boolean stopping;
+
+        private Session(final Path file, final TraceWriter writer, final long maxNanos) {
+            this.file = file;
+            this.writer = writer;
+            this.maxNanos = maxNanos;
+            this.thread = new Thread(this, "DesirePaths-TraceRecorder");
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try (writer) {
+                while (!stopping && System.nanoTime() - startedNanos < maxNanos) {
+                    final TraceRecord record = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (record != null) {
+                        writer.write(record);
+                    }
+                }
+                stopping = true;
+                TraceRecord record;
+                while ((record = queue.poll()) != null) {
+                    writer.write(record);
+                }
+            } catch (final IOException e) {
+                logger.log(Level.WARNING, "Could not write the trace " + file.getFileName(), e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stopping = true;
+                finished(this);
+            }
+            logger.info(String.format("Trace %s written: %d attempts, %d dropped",
+                    file.getFileName(), writer.getRecords(), dropped.sum()));
+        }
+    }
+}
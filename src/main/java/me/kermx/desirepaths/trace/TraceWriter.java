@@ -0,0 +1,108 @@
+package me.kermx.desirepaths.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a movement trace. The file is gzipped and starts with a small
+ * header, followed by records:
+ * <ul>
+ *     <li>NAME: id, text. Defines an id for a UUID, material, entity type or game mode name.
+ *     Every name is written once, the attempts refer to it by id.</li>
+ *     <li>ATTEMPT: time, player, world, x, y, z, vehicle, boots, flags, game mode,
+ *     block below, block at feet, block above. Ids of -1 mean none.</li>
+ * </ul>
+ * Names instead of ordinals keep a trace readable by other server versions.
+ * Not thread safe, the recorder writes from a single thread.
+ */
+public final class TraceWriter implements Closeable {
+    static final int MAGIC = 0x44505452; // DPTR
+    static final short VERSION = 1;
+    static final byte NAME = 0;
+    static final byte ATTEMPT = 1;
+
+    static final int FEATHER_FALLING = 1;
+    static final int SPRINTING = 1 << 1;
+    static final int SNEAKING = 1 << 2;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> names = new HashMap<>();
+    private long records;
+
+    /**
+     * Creates the file and writes the header.
+     *
+     * @param file          The file
+     * @param source        What recorded the trace, e.g. the server and plugin version
+     * @param startedMillis When the recording started, in epoch millis
+     * @throws IOException If the file cannot be written
+     */
+    public TraceWriter(final Path file, final String source, final long startedMillis) throws IOException {
+        Files.createDirectories(file.getParent());
+        out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file), 1 << 16), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeUTF(source);
+        out.writeLong(startedMillis);
+    }
+
+    public void write(final TraceRecord record) throws IOException {
+        final int player = name(record.getPlayerId().toString());
+        final int world = name(record.getWorldId().toString());
+        final int vehicle = record.getVehicle() == null ? -1 : name(record.getVehicle().name());
+        final int boots = record.getBoots() == null ? -1 : name(record.getBoots().name());
+        final int gameMode = name(record.getGameMode().name());
+        final int below = name(record.getBelow().name());
+        final int atFeet = name(record.getAtFeet().name());
+        final int above = name(record.getAbove().name());
+        final int flags = (record.isFeatherFalling() ? FEATHER_FALLING : 0)
+                | (record.isSprinting() ? SPRINTING : 0)
+                | (record.isSneaking() ? SNEAKING : 0);
+
+        out.writeByte(ATTEMPT);
+        out.writeInt(record.getTimeMillis());
+        out.writeInt(player);
+        out.writeInt(world);
+        out.writeDouble(record.getX());
+        out.writeDouble(record.getY());
+        out.writeDouble(record.getZ());
+        out.writeInt(vehicle);
+        out.writeInt(boots);
+        out.writeByte(flags);
+        out.writeInt(gameMode);
+        out.writeInt(below);
+        out.writeInt(atFeet);
+        out.writeInt(above);
+        records++;
+    }
+
+    private int name(final String value) throws IOException {
+        final Integer id = names.get(value);
+        if (id != null) {
+            return id;
+        }
+
+        final int newId = names.size();
+        names.put(value, newId);
+        out.writeByte(NAME);
+        out.writeInt(newId);
+        out.writeUTF(value);
+        return newId;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,145 @@
+package me.kermx.desirepaths.integrations;
+
+import me.kermx.desirepaths.integrations.CoreProtectLogQueue.BackPressure;
+import me.kermx.desirepaths.integrations.CoreProtectLogQueue.LogRecord;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoreProtectLogQueueTest {
+    private final World world = world();
+    private final List<LogRecord> logged = new ArrayList<>();
+
+    @Test
+    void belowCapacityEveryChangeIsQueuedOnItsOwn() {
+        final CoreProtectLogQueue queue = queue(4, BackPressure.COALESCE);
+
+        assertTrue(queue.offer(record(1, Material.GRASS_BLOCK, Material.DIRT)));
+        assertTrue(queue.offer(record(1, Material.DIRT, Material.DIRT_PATH)));
+        assertEquals(2, queue.size());
+        assertEquals(0, queue.getCoalesced());
+    }
+
+    @Test
+    void whileFullAChangeOfAQueuedBlockIsMergedIntoItsNewestRecord() {
+        final CoreProtectLogQueue queue = queue(3, BackPressure.COALESCE);
+        queue.offer(record(1, Material.GRASS_BLOCK, Material.DIRT));
+        queue.offer(record(2, Material.GRASS_BLOCK, Material.DIRT));
+        queue.offer(record(1, Material.DIRT, Material.COARSE_DIRT));
+
+        assertTrue(queue.offer(record(1, Material.COARSE_DIRT, Material.DIRT_PATH)));
+        assertEquals(3, queue.size());
+        assertEquals(1, queue.getCoalesced());
+        assertEquals(0, queue.getDropped());
+
+        queue.stop();
+        assertEquals(3, logged.size());
+        assertEquals(Material.DIRT, logged.get(0).getPlacedType(), "the older record is untouched");
+        assertEquals(Material.DIRT, logged.get(2).getRemovedType());
+        assertEquals(Material.DIRT_PATH, logged.get(2).getPlacedType());
+    }
+
+    @Test
+    void whileFullChangesOfOtherBlocksAreDropped() {
+        final CoreProtectLogQueue queue = queue(2, BackPressure.COALESCE);
+        queue.offer(record(1, Material.GRASS_BLOCK, Material.DIRT));
+        queue.offer(record(2, Material.GRASS_BLOCK, Material.DIRT));
+
+        assertFalse(queue.offer(record(3, Material.GRASS_BLOCK, Material.DIRT)));
+        assertEquals(1, queue.getDropped());
+        assertEquals(0, queue.getCoalesced());
+    }
+
+    @Test
+    void aLoggedBlockIsNoLongerMergedInto() {
+        final CoreProtectLogQueue queue = queue(1, BackPressure.COALESCE);
+        queue.offer(record(1, Material.GRASS_BLOCK, Material.DIRT));
+        queue.stop();
+
+        queue.offer(record(2, Material.GRASS_BLOCK, Material.DIRT));
+        assertFalse(queue.offer(record(1, Material.DIRT, Material.DIRT_PATH)));
+        assertEquals(0, queue.getCoalesced());
+    }
+
+    @Test
+    void dropNeverMerges() {
+        final CoreProtectLogQueue queue = queue(1, BackPressure.DROP);
+        queue.offer(record(1, Material.GRASS_BLOCK, Material.DIRT));
+
+        assertFalse(queue.offer(record(1, Material.DIRT, Material.DIRT_PATH)));
+        assertEquals(1, queue.getDropped());
+        assertEquals(0, queue.getCoalesced());
+    }
+
+    @Test
+    void stopLogsEverythingStillQueuedInOrder() {
+        final CoreProtectLogQueue queue = queue(100, BackPressure.BLOCK);
+        queue.start();
+        for (int x = 0; x < 50; x++) {
+            queue.offer(record(x, Material.GRASS_BLOCK, Material.DIRT));
+        }
+        queue.stop();
+
+        assertEquals(50, logged.size());
+        for (int x = 0; x < 50; x++) {
+            assertEquals(x, logged.get(x).getLocation().getBlockX());
+        }
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void aFailingRecordDoesNotStopTheBatch() {
+        final Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        final CoreProtectLogQueue queue = new CoreProtectLogQueue(record -> {
+            if (record.getLocation().getBlockX() == 1) {
+                throw new IllegalStateException();
+            }
+            logged.add(record);
+        }, logger, 10, 10, BackPressure.DROP);
+
+        for (int x = 0; x < 3; x++) {
+            queue.offer(record(x, Material.GRASS_BLOCK, Material.DIRT));
+        }
+        queue.stop();
+
+        assertEquals(2, logged.size());
+        assertEquals(2, logged.get(1).getLocation().getBlockX());
+    }
+
+    private CoreProtectLogQueue queue(final int capacity, final BackPressure backPressure) {
+        return new CoreProtectLogQueue(logged::add, Logger.getAnonymousLogger(), capacity, capacity, backPressure);
+    }
+
+    private LogRecord record(final int x, final Material removed, final Material placed) {
+        return new LogRecord("Steve", world, x, 64, 0, removed, null, placed, null);
+    }
+
+    private static World world() {
+        final UUID id = UUID.randomUUID();
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+                (instance, method, args) -> {
+                    switch (method.getName()) {
+                        case "getUID":
+                            return id;
+                        case "equals":
+                            return instance == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(instance);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
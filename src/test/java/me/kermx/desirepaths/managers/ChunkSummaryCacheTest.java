@@ -0,0 +1,199 @@
+package me.kermx.desirepaths.managers;
+
+import me.kermx.desirepaths.schedulers.SchedulerAdapter;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkSummaryCacheTest {
+    private static final int MIN_HEIGHT = -64;
+    private static final int MAX_HEIGHT = 320;
+
+    private final UUID worldId = UUID.randomUUID();
+    private final List<Runnable> asyncTasks = new ArrayList<>();
+    private ChunkSummaryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ChunkSummaryCache();
+        cache.configure(true, EnumSet.of(Material.GRASS_BLOCK, Material.DIRT), 300, 100);
+    }
+
+    @Test
+    void everyPositionMayChangeUntilTheScanIsDone() {
+        cache.capture(chunk(), scheduler());
+
+        assertTrue(cache.mayChange(worldId, 0, -30, 0));
+        assertTrue(cache.mayChange(worldId, 0, 100, 0));
+    }
+
+    @Test
+    void sectionsWithoutSourcesAreSkippedBelowZero() {
+        cache.capture(chunk(), scheduler());
+        runAsyncTasks();
+
+        assertFalse(cache.mayChange(worldId, 3, -60, 3), "stone only");
+        assertFalse(cache.mayChange(worldId, 3, -1, 3), "stone only");
+        assertTrue(cache.mayChange(worldId, 3, 5, 3), "grass at y 5");
+        assertTrue(cache.mayChange(worldId, 3, 15, 3), "same section as the grass");
+        assertFalse(cache.mayChange(worldId, 3, 16, 3), "air only");
+        assertFalse(cache.mayChange(worldId, 3, MAX_HEIGHT, 3), "above the world");
+    }
+
+    @Test
+    void markTurnsASectionOnOnlyForSources() {
+        cache.capture(chunk(), scheduler());
+        runAsyncTasks();
+
+        cache.mark(worldId, 3, -30, 3, Material.STONE);
+        assertFalse(cache.mayChange(worldId, 3, -30, 3));
+
+        cache.mark(worldId, 3, -30, 3, Material.DIRT);
+        assertTrue(cache.mayChange(worldId, 3, -30, 3));
+        assertTrue(cache.mayChange(worldId, 3, -17, 3), "whole section");
+        assertFalse(cache.mayChange(worldId, 3, -33, 3), "section below");
+    }
+
+    @Test
+    void invalidateDropsTheSummary() {
+        cache.capture(chunk(), scheduler());
+        runAsyncTasks();
+        cache.invalidate(worldId, 0, 0);
+
+        assertTrue(cache.mayChange(worldId, 3, -60, 3));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void reconfiguringWithTheSameSettingsKeepsTheSummaries() {
+        cache.capture(chunk(), scheduler());
+        runAsyncTasks();
+
+        cache.configure(true, EnumSet.of(Material.DIRT, Material.GRASS_BLOCK), 60, 100);
+        assertFalse(cache.mayChange(worldId, 3, -60, 3));
+
+        cache.configure(true, EnumSet.of(Material.DIRT), 60, 100);
+        assertTrue(cache.mayChange(worldId, 3, -60, 3), "other sources");
+        assertEquals(0, cache.size());
+    }
+
+    private void runAsyncTasks() {
+        for (final Runnable task : asyncTasks) {
+            task.run();
+        }
+        asyncTasks.clear();
+    }
+
+    // Stone below 0, one grass block at y 5 and air above, like a flattened overworld chunk
+    private static Material typeAt(final int y) {
+        if (y < 0) {
+            return Material.STONE;
+        }
+        return y == 5 ? Material.GRASS_BLOCK : Material.AIR;
+    }
+
+    private Chunk chunk() {
+        final World world = proxy(World.class, (method, args) -> {
+            switch (method) {
+                case "getUID":
+                    return worldId;
+                case "getMinHeight":
+                    return MIN_HEIGHT;
+                case "getMaxHeight":
+                    return MAX_HEIGHT;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        // Checks its arguments like CraftChunkSnapshot, sections are indexed from the bottom of the world
+        final ChunkSnapshot snapshot = proxy(ChunkSnapshot.class, (method, args) -> {
+            switch (method) {
+                case "getBlockType":
+                    return typeAt((int) args[1]);
+                case "isSectionEmpty": {
+                    final int section = (int) args[0];
+                    if (section < 0 || section >= (MAX_HEIGHT - MIN_HEIGHT) >> 4) {
+                        throw new IllegalArgumentException("Invalid section " + section);
+                    }
+                    return MIN_HEIGHT + (section << 4) > 5;
+                }
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        return proxy(Chunk.class, (method, args) -> {
+            switch (method) {
+                case "getWorld":
+                    return world;
+                case "getX":
+                case "getZ":
+                    return 0;
+                case "getChunkSnapshot":
+                    return snapshot;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private SchedulerAdapter scheduler() {
+        return new SchedulerAdapter() {
+            @Override
+            public boolean isRegionThreaded() {
+                return false;
+            }
+
+            @Override
+            public Task runRepeating(final Runnable task, final long delay, final long period) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void runAsync(final Runnable task) {
+                asyncTasks.add(task);
+            }
+
+            @Override
+            public void runForEntity(final Entity entity, final Runnable task) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void runAtChunk(final World world, final int chunkX, final int chunkZ, final Runnable task) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void cancelAll() {
+            }
+        };
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(final Class<T> type, final Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (instance, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.getName().equals("equals") ? instance == args[0] : method.invoke(handler, args);
+                    }
+                    return handler.invoke(method.getName(), args);
+                }));
+    }
+}
@@ -0,0 +1,118 @@
+package me.kermx.desirepaths.managers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class YamlToggleStoreTest {
+    private static final Logger LOGGER = Logger.getAnonymousLogger();
+
+    static {
+        LOGGER.setLevel(Level.OFF);
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void savedTogglesAreReadBack() throws IOException {
+        final File file = dir.resolve("toggleData.yml").toFile();
+        final UUID on = UUID.randomUUID();
+        final UUID off = UUID.randomUUID();
+        final Map<UUID, Boolean> changes = new HashMap<>();
+        changes.put(on, true);
+        changes.put(off, false);
+
+        new YamlToggleStore(file, LOGGER).save(changes, true);
+
+        final YamlToggleStore store = new YamlToggleStore(file, LOGGER);
+        assertEquals(true, store.loadToggle(on));
+        assertEquals(false, store.loadToggle(off));
+        assertNull(store.loadToggle(UUID.randomUUID()));
+        assertTrue(store.loadMaintenanceMode());
+    }
+
+    @Test
+    void laterSavesKeepEarlierToggles() throws IOException {
+        final File file = dir.resolve("toggleData.yml").toFile();
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        final YamlToggleStore store = new YamlToggleStore(file, LOGGER);
+
+        store.save(Collections.singletonMap(first, false), true);
+        store.save(Collections.singletonMap(second, true), null);
+
+        final YamlToggleStore reopened = new YamlToggleStore(file, LOGGER);
+        assertEquals(false, reopened.loadToggle(first));
+        assertEquals(true, reopened.loadToggle(second));
+        assertTrue(reopened.loadMaintenanceMode(), "unchanged by the second save");
+    }
+
+    @Test
+    void saveLeavesNoTemporaryFileBehind() throws IOException {
+        final Path target = dir.resolve("toggleData.yml");
+        final Path temp = dir.resolve("toggleData.yml.tmp");
+        // Left by a crash between writing and renaming
+        Files.write(temp, "half a fi".getBytes(StandardCharsets.UTF_8));
+
+        new YamlToggleStore(target.toFile(), LOGGER).save(Collections.singletonMap(UUID.randomUUID(), true), false);
+
+        assertTrue(Files.exists(target));
+        assertFalse(Files.exists(temp));
+    }
+
+    @Test
+    void aFailedSaveKeepsTheOldFile() throws IOException {
+        final Path target = dir.resolve("toggleData.yml");
+        final UUID playerId = UUID.randomUUID();
+        final YamlToggleStore store = new YamlToggleStore(target.toFile(), LOGGER);
+        store.save(Collections.singletonMap(playerId, true), false);
+        final byte[] saved = Files.readAllBytes(target);
+
+        // The temporary file cannot be written while a directory is in its place
+        Files.createDirectory(dir.resolve("toggleData.yml.tmp"));
+        assertThrows(IOException.class, () -> store.save(Collections.singletonMap(playerId, false), true));
+
+        assertEquals(new String(saved, StandardCharsets.UTF_8), new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        assertEquals(true, new YamlToggleStore(target.toFile(), LOGGER).loadToggle(playerId));
+    }
+
+    @Test
+    void missingDirectoriesAreCreated() throws IOException {
+        final File file = dir.resolve("plugins").resolve("DesirePaths").resolve("toggleData.yml").toFile();
+
+        new YamlToggleStore(file, LOGGER).save(Collections.emptyMap(), true);
+
+        assertTrue(new YamlToggleStore(file, LOGGER).loadMaintenanceMode());
+    }
+
+    @Test
+    void invalidKeysAreSkipped() throws IOException {
+        final Path target = dir.resolve("toggleData.yml");
+        final UUID playerId = UUID.randomUUID();
+        Files.write(target, ("maintenanceMode: false\nnot-a-uuid: true\n" + playerId + ": false\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        final YamlToggleStore store = new YamlToggleStore(target.toFile(), LOGGER);
+
+        assertEquals(false, store.loadToggle(playerId));
+        assertFalse(store.loadMaintenanceMode());
+    }
+}
@@ -0,0 +1,119 @@
+package me.kermx.desirepaths.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void withoutSamplesEverythingIsZero() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getPercentileNanos(50));
+        assertEquals(0, histogram.getPercentileNanos(100));
+        assertEquals(0, histogram.getMeanNanos());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+
+    @Test
+    void percentilesAreTheUpperBoundOfTheirBucket() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000_000);
+        }
+
+        assertEquals(1_023, histogram.getPercentileNanos(50));
+        assertEquals(1_023, histogram.getPercentileNanos(90));
+        assertEquals(1_000_000, histogram.getPercentileNanos(91), "capped at the max");
+        assertEquals(1_000_000, histogram.getPercentileNanos(100));
+        assertEquals(1_023, histogram.getPercentileNanos(0), "the first sample");
+    }
+
+    @Test
+    void aPercentileIsNeverBelowTheSampleItStandsFor() {
+        // Below the last bucket, which reports the max
+        for (long nanos = 1; nanos < 1L << 37; nanos = nanos * 3 + 1) {
+            final LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(nanos);
+            histogram.record(nanos * 2);
+
+            final long p50 = histogram.getPercentileNanos(50);
+            assertTrue(p50 >= nanos && p50 < nanos * 2, nanos + " got " + p50);
+            assertEquals(nanos * 2, histogram.getPercentileNanos(100));
+        }
+    }
+
+    @Test
+    void valuesBeyondTheLastBucketReportTheMax() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1L << 50);
+
+        assertEquals(1L << 50, histogram.getPercentileNanos(99));
+    }
+
+    @Test
+    void zeroAndNegativeSamplesCountAsZero() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(-5);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getTotalNanos());
+        assertEquals(0, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    void totalsMeanAndMax() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.record(200);
+        histogram.record(600);
+
+        assertEquals(3, histogram.getCount());
+        assertEquals(900, histogram.getTotalNanos());
+        assertEquals(300, histogram.getMeanNanos());
+        assertEquals(600, histogram.getMaxNanos());
+    }
+
+    @Test
+    void resetStartsOver() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_000);
+        histogram.reset();
+        histogram.record(10);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(10, histogram.getMaxNanos());
+        assertEquals(10, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    void samplesFromManyThreadsAreAllCounted() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(4L * 10_000 * 10_001 / 2, histogram.getTotalNanos());
+        assertEquals(10_000, histogram.getMaxNanos());
+    }
+}
@@ -0,0 +1,154 @@
+package me.kermx.desirepaths.paths;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegionWearFileTest {
+    private static final int EPOCH = 1000;
+    private static final int THRESHOLD = 10_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void wearSurvivesReopening() throws IOException {
+        final Path path = directory.resolve("r.0.0.dpw");
+        final RegionWearFile file = RegionWearFile.open(path);
+        file.addWear(1, 64, 2, 7, EPOCH, THRESHOLD, true);
+        file.addWear(511, -64, 511, 9, EPOCH, THRESHOLD, true);
+        file.force();
+
+        final RegionWearFile reopened = RegionWearFile.open(path);
+        assertEquals(2, reopened.size());
+        assertEquals(7, reopened.getWear(1, 64, 2));
+        assertEquals(9, reopened.getWear(511, -64, 511));
+    }
+
+    @Test
+    void growingInPlaceKeepsEveryBlockAndTheFile() throws IOException {
+        final Path path = directory.resolve("r.0.0.dpw");
+        final RegionWearFile file = RegionWearFile.open(path);
+        final long initialLength = Files.size(path);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(file.addWear(i % 512, i / 512, 3, i % 100 + 1, EPOCH, THRESHOLD, true));
+        }
+        assertEquals(10_000, file.size());
+        assertTrue(Files.size(path) > initialLength, "grown");
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i % 100 + 1, file.getWear(i % 512, i / 512, 3));
+        }
+
+        file.force();
+        final RegionWearFile reopened = RegionWearFile.open(path);
+        assertEquals(10_000, reopened.size());
+        assertEquals(100, reopened.getWear(99, 0, 3));
+    }
+
+    @Test
+    void evictingShrinksTheTableButNotTheFile() throws IOException {
+        final Path path = directory.resolve("r.0.0.dpw");
+        final RegionWearFile file = RegionWearFile.open(path);
+
+        for (int i = 0; i < 10_000; i++) {
+            file.addWear(i % 512, i / 512, 3, 1, EPOCH, THRESHOLD, true);
+        }
+        file.addWear(5, 0, 3, 1, EPOCH + 50, THRESHOLD, true);
+        final long grownLength = Files.size(path);
+
+        file.evictCold(EPOCH + 60, 30);
+        assertEquals(1, file.size());
+        assertEquals(2, file.getWear(5, 0, 3));
+        assertEquals(0, file.getWear(6, 0, 3));
+        assertEquals(grownLength, Files.size(path));
+
+        file.force();
+        final RegionWearFile reopened = RegionWearFile.open(path);
+        assertEquals(1, reopened.size());
+        assertEquals(2, reopened.getWear(5, 0, 3));
+
+        // Grows again within the same file
+        for (int i = 0; i < 10_000; i++) {
+            file.addWear(i % 512, i / 512, 4, 3, EPOCH + 60, THRESHOLD, true);
+        }
+        assertEquals(10_001, file.size());
+        assertEquals(3, file.getWear(271, 19, 4));
+        assertEquals(2, file.getWear(5, 0, 3));
+    }
+
+    @Test
+    void newBlocksNeedRoom() throws IOException {
+        final RegionWearFile file = RegionWearFile.open(directory.resolve("r.0.0.dpw"));
+
+        assertFalse(file.addWear(1, 1, 1, 5, EPOCH, THRESHOLD, false));
+        assertEquals(0, file.size());
+        assertEquals(0, file.getWear(1, 1, 1));
+    }
+
+    @Test
+    void aFileLeftMidRebuildOpensEmpty() throws IOException {
+        final Path path = directory.resolve("r.0.0.dpw");
+        final RegionWearFile file = RegionWearFile.open(path);
+        file.addWear(1, 64, 2, 7, EPOCH, THRESHOLD, true);
+        file.force();
+
+        // The size in the header is -1 while a rebuild runs
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, -1), 12);
+        }
+
+        final RegionWearFile reopened = RegionWearFile.open(path);
+        assertEquals(0, reopened.size());
+        assertEquals(0, reopened.getWear(1, 64, 2));
+        reopened.addWear(1, 64, 2, 3, EPOCH, THRESHOLD, true);
+        assertEquals(3, reopened.getWear(1, 64, 2));
+    }
+
+    @Test
+    void otherFilesAreRejected() throws IOException {
+        final Path path = directory.resolve("r.0.0.dpw");
+        Files.write(path, new byte[64]);
+
+        assertThrows(IOException.class, () -> RegionWearFile.open(path));
+    }
+
+    @Test
+    void dirtyPagesAreHandedOutOnce() throws IOException {
+        final RegionWearFile file = RegionWearFile.open(directory.resolve("r.0.0.dpw"));
+        file.addWear(1, 64, 2, 7, EPOCH, THRESHOLD, true);
+
+        assertFalse(file.takeDirtyRanges().isEmpty());
+        assertTrue(file.takeDirtyRanges().isEmpty());
+    }
+
+    @Test
+    void unloadedRegionsAreMappedAgainWithTheirWear() {
+        final RegionWearStore store = new RegionWearStore(directory, Logger.getLogger("test"));
+        store.addWear(10, 64, 10, 4, EPOCH, THRESHOLD, 100);
+        store.addWear(600, 64, 10, 4, EPOCH, THRESHOLD, 100);
+        assertEquals(2, store.size());
+
+        store.unload(0, 0);
+        assertFalse(store.isLoaded(0, 0));
+        assertTrue(store.isLoaded(1, 0));
+        assertEquals(1, store.size());
+
+        assertEquals(4, store.getWear(10, 64, 10));
+        assertTrue(store.isLoaded(0, 0));
+        assertEquals(2, store.size());
+        store.close();
+    }
+}
@@ -0,0 +1,106 @@
+package me.kermx.desirepaths.paths;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WearMapTest {
+    private static final int EPOCH = 1000;
+
+    @Test
+    void packKeepsNeighboursAndNegativeCoordinatesApart() {
+        final Set<Long> keys = new HashSet<>();
+
+        for (int x = -2; x <= 2; x++) {
+            for (int y = -64; y <= -62; y++) {
+                for (int z = -2; z <= 2; z++) {
+                    assertTrue(keys.add(WearMap.pack(x, y, z)), x + "," + y + "," + z);
+                }
+            }
+        }
+        assertTrue(keys.add(WearMap.pack(30_000_000, 319, -30_000_000)));
+        assertTrue(keys.add(WearMap.pack(-30_000_000, 319, 30_000_000)));
+    }
+
+    @Test
+    void wearAddsUpUntilTheThresholdAndStartsOver() {
+        final WearMap map = new WearMap();
+
+        assertFalse(map.addWear(1, 64, 1, 40, EPOCH, 100, Integer.MAX_VALUE));
+        assertFalse(map.addWear(1, 64, 1, 40, EPOCH, 100, Integer.MAX_VALUE));
+        assertEquals(80, map.getWear(1, 64, 1));
+
+        assertTrue(map.addWear(1, 64, 1, 40, EPOCH, 100, Integer.MAX_VALUE));
+        assertEquals(0, map.getWear(1, 64, 1));
+        assertEquals(1, map.size(), "still tracked after the transition");
+        assertEquals(0, map.getWear(2, 64, 1));
+    }
+
+    @Test
+    void wearSaturatesAtTheMask() {
+        int value = 0;
+        for (int i = 0; i < 10; i++) {
+            value = WearMap.step(value, 30_000, EPOCH, Integer.MAX_VALUE);
+        }
+        assertEquals(WearMap.WEAR_MASK, value & WearMap.WEAR_MASK);
+
+        // The highest threshold the config allows is still reached
+        assertEquals(0, WearMap.step(value, 1, EPOCH, WearTracker.MAX_THRESHOLD) & WearMap.WEAR_MASK);
+    }
+
+    @Test
+    void newBlocksAreNotTrackedOnceFull() {
+        final WearMap map = new WearMap();
+
+        map.addWear(0, 64, 0, 1, EPOCH, 100, 2);
+        map.addWear(1, 64, 0, 1, EPOCH, 100, 2);
+        assertFalse(map.addWear(2, 64, 0, 1, EPOCH, 100, 2));
+        assertEquals(0, map.getWear(2, 64, 0));
+        assertEquals(2, map.size());
+
+        map.addWear(0, 64, 0, 1, EPOCH, 100, 2);
+        assertEquals(2, map.getWear(0, 64, 0), "known blocks still count");
+    }
+
+    @Test
+    void growingKeepsEveryBlock() {
+        final WearMap map = new WearMap();
+
+        for (int i = 0; i < 5000; i++) {
+            map.addWear(i, i % 300 - 64, -i, i % 50 + 1, EPOCH, 1000, Integer.MAX_VALUE);
+        }
+        assertEquals(5000, map.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i % 50 + 1, map.getWear(i, i % 300 - 64, -i));
+        }
+    }
+
+    @Test
+    void evictColdDropsOnlyColdBlocks() {
+        final WearMap map = new WearMap();
+
+        for (int i = 0; i < 2000; i++) {
+            map.addWear(i, 64, 0, 5, EPOCH, 100, Integer.MAX_VALUE);
+        }
+        map.addWear(0, 64, 0, 5, EPOCH + 50, 100, Integer.MAX_VALUE);
+
+        map.evictCold(EPOCH + 60, 30);
+        assertEquals(1, map.size());
+        assertEquals(10, map.getWear(0, 64, 0));
+        assertEquals(0, map.getWear(1, 64, 0));
+    }
+
+    @Test
+    void coldnessSurvivesTheEpochWrapping() {
+        final int lastStep = WearMap.EPOCH_MASK - 5;
+        final int value = WearMap.step(0, 1, lastStep, 100);
+
+        assertFalse(WearMap.isCold(value, lastStep + 10, 30));
+        assertTrue(WearMap.isCold(value, lastStep + 40, 30));
+    }
+}
@@ -0,0 +1,93 @@
+package me.kermx.desirepaths.schedulers;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveFrequencyTest {
+    private static final double HEALTHY = 20;
+    private static final double STEADY = 42;
+    private static final double BUSY = 50;
+    private static final double OVERLOADED = 70;
+
+    private static AdaptiveFrequency controller() {
+        return new AdaptiveFrequency(10, 5, 40, 2, 40, 45, 60, 40);
+    }
+
+    // Runs the ticks up to and including the next cycle, none before it may process players
+    private static int cycle(final AdaptiveFrequency frequency, final double mspt) {
+        final int ticks = frequency.getFrequency();
+        for (int i = 1; i < ticks; i++) {
+            assertEquals(0, frequency.tick(mspt), "tick " + i + " of " + ticks);
+        }
+        return frequency.tick(mspt);
+    }
+
+    @Test
+    void aCycleRunsEveryFrequencyTicks() {
+        final AdaptiveFrequency frequency = controller();
+
+        assertEquals(40, cycle(frequency, STEADY));
+        assertEquals(10, frequency.getFrequency());
+        assertEquals(40, cycle(frequency, STEADY));
+    }
+
+    @Test
+    void aboveTheTargetItBacksOffEveryCycle() {
+        final AdaptiveFrequency frequency = controller();
+
+        assertEquals(20, cycle(frequency, BUSY));
+        assertEquals(20, frequency.getFrequency());
+        assertEquals(10, cycle(frequency, BUSY));
+        assertEquals(40, frequency.getFrequency());
+        assertEquals(5, cycle(frequency, BUSY));
+        assertEquals(2, cycle(frequency, BUSY));
+        assertEquals(2, cycle(frequency, BUSY), "never below the fewest players");
+        assertEquals(40, frequency.getFrequency(), "never above the longest interval");
+    }
+
+    @Test
+    void aboveThePauseNothingRuns() {
+        final AdaptiveFrequency frequency = controller();
+
+        assertEquals(0, cycle(frequency, OVERLOADED));
+        assertEquals(40, frequency.getFrequency());
+        assertEquals(2, frequency.getPlayerCap());
+        assertEquals(0, cycle(frequency, OVERLOADED));
+    }
+
+    @Test
+    void belowTheRecoverItCreepsBackOneStepPerCycle() {
+        final AdaptiveFrequency frequency = controller();
+        cycle(frequency, OVERLOADED);
+
+        assertEquals(4, cycle(frequency, HEALTHY));
+        assertEquals(39, frequency.getFrequency());
+        assertEquals(6, cycle(frequency, HEALTHY));
+        assertEquals(38, frequency.getFrequency());
+
+        for (int i = 0; i < 40; i++) {
+            cycle(frequency, HEALTHY);
+        }
+        assertEquals(5, frequency.getFrequency(), "never below the shortest interval");
+        assertEquals(40, frequency.getPlayerCap(), "never above the most players");
+    }
+
+    @Test
+    void betweenRecoverAndTargetNothingChanges() {
+        final AdaptiveFrequency frequency = controller();
+        cycle(frequency, BUSY);
+
+        assertEquals(20, cycle(frequency, STEADY));
+        assertEquals(20, frequency.getFrequency());
+        assertEquals(20, frequency.getPlayerCap());
+    }
+
+    @Test
+    void settingsAreClamped() {
+        final AdaptiveFrequency frequency = new AdaptiveFrequency(1_000, 0, -1, 0, 0, 45, 60, 40);
+
+        assertEquals(1, frequency.getFrequency(), "the longest interval is at least the shortest, at least 1");
+        assertEquals(1, cycle(frequency, HEALTHY), "at least one player");
+    }
+}
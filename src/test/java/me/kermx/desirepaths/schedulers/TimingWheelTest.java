@@ -0,0 +1,122 @@
+package me.kermx.desirepaths.schedulers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final class Entry extends TimingWheel.Timer {
+        private final long wanted;
+        private long expiredAt = -1;
+
+        private Entry(final long wanted) {
+            this.wanted = wanted;
+        }
+    }
+
+    @Test
+    void timersExpireOnTheirDeadline() {
+        final TimingWheel<Entry> wheel = new TimingWheel<>(0);
+        final List<Entry> entries = new ArrayList<>();
+
+        // Every level, around the slot and turn borders of each
+        for (final long deadline : new long[]{1, 2, 63, 64, 65, 127, 128, 4095, 4096, 4097, 262_143, 262_144, 262_145,
+                1_000_000, 16_777_215, 16_777_216}) {
+            final Entry entry = new Entry(deadline);
+            wheel.schedule(entry, deadline);
+            entries.add(entry);
+        }
+        assertEquals(entries.size(), wheel.size());
+
+        for (long step = 1; step <= 16_777_216; step++) {
+            final long now = step;
+            wheel.advance(step, entry -> entry.expiredAt = now);
+        }
+
+        for (final Entry entry : entries) {
+            assertEquals(entry.wanted, entry.expiredAt, "deadline " + entry.wanted);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advancingManyStepsAtOnceCascades() {
+        final Random random = new Random(42);
+        final TimingWheel<Entry> wheel = new TimingWheel<>(1000);
+        final List<Entry> entries = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            final long deadline = 1001 + random.nextInt(300_000);
+            final Entry entry = new Entry(deadline);
+            wheel.schedule(entry, deadline);
+            entries.add(entry);
+        }
+
+        // Like a server that skipped a few seconds, in uneven jumps
+        long now = 1000;
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(5000);
+            final long reached = now;
+            wheel.advance(now, entry -> {
+                assertTrue(entry.wanted <= reached, "expired early");
+                entry.expiredAt = reached;
+            });
+        }
+
+        for (final Entry entry : entries) {
+            assertTrue(entry.expiredAt >= entry.wanted);
+            assertTrue(entry.expiredAt - entry.wanted < 5001, "expired late");
+        }
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextStep() {
+        final TimingWheel<Entry> wheel = new TimingWheel<>(100);
+        final Entry entry = new Entry(101);
+        wheel.schedule(entry, 50);
+
+        assertEquals(101, entry.getDeadline());
+        wheel.advance(101, expired -> expired.expiredAt = 101);
+        assertEquals(101, entry.expiredAt);
+    }
+
+    @Test
+    void deadlinesBeyondTheLastWheelAreParkedAndPlacedAgain() {
+        final TimingWheel<Entry> wheel = new TimingWheel<>(0);
+        final long deadline = 40_000_000L;
+        final Entry entry = new Entry(deadline);
+        wheel.schedule(entry, deadline);
+
+        wheel.advance(deadline - 1, expired -> expired.expiredAt = -2);
+        assertEquals(-1, entry.expiredAt);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(deadline, expired -> expired.expiredAt = deadline);
+        assertEquals(deadline, entry.expiredAt);
+    }
+
+    @Test
+    void expiredTimersMayBeScheduledAgain() {
+        final TimingWheel<Entry> wheel = new TimingWheel<>(0);
+        final Entry entry = new Entry(10);
+        final List<Long> expiries = new ArrayList<>();
+        wheel.schedule(entry, 10);
+
+        for (long step = 1; step <= 100; step++) {
+            final long now = step;
+            wheel.advance(step, expired -> {
+                expiries.add(now);
+                if (expiries.size() < 3) {
+                    wheel.schedule(expired, now + 30);
+                }
+            });
+        }
+        assertEquals(List.of(10L, 40L, 70L), expiries);
+    }
+}